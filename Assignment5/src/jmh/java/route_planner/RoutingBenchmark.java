@@ -0,0 +1,181 @@
+package route_planner;
+
+import graphs.ContractionHierarchy;
+import graphs.FrozenGraph;
+import graphs.LandmarkIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures the throughput of the path searches on a generated road network of numJunctions junctions,
+ * for a fixed set of random queries between junctions of the largest strongly connected component.
+ * The searches on the RoadMap itself are compared with the accelerated query modes:
+ * A* and ALT on the map, dijkstra on a frozen snapshot and queries on a contraction hierarchy.
+ * The one-to-all benchmarks compare sequential dijkstra with parallel delta-stepping on the frozen snapshot.
+ *
+ * Run by
+ *      mvn -P jmh package
+ *      java -jar target/benchmarks.jar [jmh options, e.g. -p numJunctions=100000 or a regular expression of benchmarks]
+ * which also reports the allocation rate per benchmark (the gc profiler is always added).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+
+    private static final int NUM_QUERIES = 256;
+    private static final Function<Road,Double> TRAVEL_TIME = RouteMetric.TRAVEL_TIME.getWeightMapper();
+
+    @Param({ "10000", "100000" })
+    public int numJunctions;
+
+    @Param({ "2022" })
+    public long seed;
+
+    private RoadMap roadMap;
+    private FrozenGraph<Junction,Road> frozenMap;
+    private LandmarkIndex landmarks;
+    private ContractionHierarchy<Junction,Road> hierarchy;
+    private String[] fromIds;
+    private String[] toIds;
+    private double averageWeight;       // the bucket width of delta-stepping
+
+    // cycles through the queries, separately for each benchmark thread
+    @State(Scope.Thread)
+    public static class QueryCursor {
+        private int next = 0;
+
+        int next() {
+            next = (next + 1) % NUM_QUERIES;
+            return next;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("routing-benchmark");
+        Path junctionsFile = directory.resolve("Junctions.csv");
+        Path roadsFile = directory.resolve("Roads.csv");
+        new RoadNetworkGenerator(seed).generate(numJunctions, junctionsFile, roadsFile);
+
+        RoadMap.reSeedRandomizer(seed);
+        roadMap = new RoadMap();
+        roadMap.importJunctions(Files.newInputStream(junctionsFile));
+        roadMap.importRoads(Files.newInputStream(roadsFile));
+        roadMap.removeUnconnectedVertices();
+        Files.delete(junctionsFile);
+        Files.delete(roadsFile);
+        Files.delete(directory);
+
+        frozenMap = roadMap.freeze(TRAVEL_TIME::apply);
+        double totalWeight = 0.0;
+        for (Junction junction : roadMap.getVertices()) {
+            for (Road road : roadMap.getEdges(junction)) {
+                totalWeight += TRAVEL_TIME.apply(road);
+            }
+        }
+        averageWeight = totalWeight / frozenMap.getNumEdges();
+        landmarks = LandmarkIndex.build(roadMap, TRAVEL_TIME::apply, 8);
+        hierarchy = new ContractionHierarchy<>(roadMap, TRAVEL_TIME);
+
+        // queries between junctions of the largest component, such that every query has a route
+        int[] componentSizes = roadMap.getComponentSizes();
+        int largest = 0;
+        for (int c = 1; c < componentSizes.length; c++) {
+            if (componentSizes[c] > componentSizes[largest]) largest = c;
+        }
+        List<String> candidates = new ArrayList<>();
+        for (Junction junction : roadMap.getVertices()) {
+            if (roadMap.getComponentId(junction.getId()) == largest) candidates.add(junction.getId());
+        }
+        Random random = new Random(seed);
+        fromIds = new String[NUM_QUERIES];
+        toIds = new String[NUM_QUERIES];
+        for (int q = 0; q < NUM_QUERIES; q++) {
+            fromIds[q] = candidates.get(random.nextInt(candidates.size()));
+            toIds[q] = candidates.get(random.nextInt(candidates.size()));
+        }
+    }
+
+    @Benchmark
+    public RoadMap.DGPath depthFirstSearch(QueryCursor cursor) {
+        int q = cursor.next();
+        return roadMap.depthFirstSearch(fromIds[q], toIds[q], false);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath breadthFirstSearch(QueryCursor cursor) {
+        int q = cursor.next();
+        return roadMap.breadthFirstSearch(fromIds[q], toIds[q], false);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath dijkstra(QueryCursor cursor) {
+        int q = cursor.next();
+        return roadMap.dijkstraShortestPath(fromIds[q], toIds[q], TRAVEL_TIME);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath bidirectionalDijkstra(QueryCursor cursor) {
+        int q = cursor.next();
+        return roadMap.bidirectionalDijkstraShortestPath(fromIds[q], toIds[q], TRAVEL_TIME);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath aStar(QueryCursor cursor) {
+        int q = cursor.next();
+        return roadMap.aStarShortestPath(fromIds[q], toIds[q], RouteMetric.TRAVEL_TIME);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath alt(QueryCursor cursor) {
+        int q = cursor.next();
+        return roadMap.altShortestPath(fromIds[q], toIds[q], TRAVEL_TIME, landmarks);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath frozenDijkstra(QueryCursor cursor) {
+        int q = cursor.next();
+        return frozenMap.dijkstraShortestPath(fromIds[q], toIds[q], false);
+    }
+
+    @Benchmark
+    public RoadMap.DGPath contractionHierarchy(QueryCursor cursor) {
+        int q = cursor.next();
+        return hierarchy.shortestPath(fromIds[q], toIds[q]);
+    }
+
+    @Benchmark
+    public double[] frozenDijkstraOneToAll(QueryCursor cursor) {
+        return frozenMap.shortestPathWeights(fromIds[cursor.next()]);
+    }
+
+    @Benchmark
+    public double[] deltaSteppingOneToAll(QueryCursor cursor) {
+        return frozenMap.deltaSteppingWeights(fromIds[cursor.next()], averageWeight);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
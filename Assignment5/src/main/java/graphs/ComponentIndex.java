@@ -0,0 +1,202 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The strongly connected components of a graph, as calculated by an iterative version of Tarjan's algorithm,
+ * together with its weakly connected components (ignoring the direction of the edges).
+ *
+ * Tarjan's algorithm completes a component only after all components that it can reach,
+ * so the component ids are a reverse topological order of the condensed graph:
+ *      if component c1 can reach another component c2, then c1 > c2
+ * Hence a path from start to target cannot exist if
+ *  -   they are in different weakly connected components, or
+ *  -   the component of start has a lower id than the component of target
+ * and a path certainly exists if they are in the same strongly connected component.
+ *
+ * The components are calculated straight from the adjacency maps of the graph by the dense vertex indices,
+ * which only requires the targets of the edges in compressed sparse row format, not a frozen snapshot with weights.
+ * The index is a snapshot of the graph; DirectedGraph discards it upon changes that may affect the components.
+ */
+class ComponentIndex<V extends Identifiable, E> {
+
+    private final DirectedGraph<V,E> graph;
+    private final List<V> vertices;         // all vertices by their dense index at the time of the snapshot
+    private final Map<V,Integer> indices;   // the index of each vertex, null if all vertices keep their own index
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] componentIds;       // strongly connected component of each vertex
+    private final int[] componentSizes;
+    private final int[] weakComponentIds;   // weakly connected component of each vertex
+
+    ComponentIndex(DirectedGraph<V,E> graph) {
+        this.graph = graph;
+        int numVertices = graph.getNumVertices();
+        this.vertices = new ArrayList<>(numVertices);
+        boolean allIndexed = true;
+        for (int v = 0; v < numVertices; v++) {
+            V vertex = graph.getVertexByIndex(v);
+            this.vertices.add(vertex);
+            allIndexed &= vertex instanceof Indexed;
+        }
+        if (allIndexed) {
+            this.indices = null;
+        } else {
+            this.indices = new HashMap<>();
+            for (int v = 0; v < numVertices; v++) {
+                this.indices.put(this.vertices.get(v), v);
+            }
+        }
+
+        this.offsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            this.offsets[v + 1] = this.offsets[v] + graph.getNeighbours(this.vertices.get(v)).size();
+        }
+        this.targets = new int[this.offsets[numVertices]];
+        for (int v = 0; v < numVertices; v++) {
+            int i = this.offsets[v];
+            for (V to : graph.getNeighbours(this.vertices.get(v))) {
+                this.targets[i++] = this.indexOf(to);
+            }
+        }
+
+        this.componentIds = new int[numVertices];
+        int numComponents = this.findStrongComponents();
+        this.componentSizes = new int[numComponents];
+        for (int v = 0; v < numVertices; v++) {
+            this.componentSizes[componentIds[v]]++;
+        }
+        this.weakComponentIds = this.findWeakComponents();
+    }
+
+    // the index of the vertex in the snapshot, -1 if the vertex has been added after the snapshot
+    private int indexOf(V vertex) {
+        if (vertex == null) return -1;
+        int v;
+        if (indices == null) {
+            v = (vertex instanceof Indexed ? ((Indexed) vertex).getIndex() : -1);
+        } else {
+            Integer index = indices.get(vertex);
+            v = (index != null ? index : -1);
+        }
+        return (v >= 0 && v < vertices.size() && vertices.get(v) == vertex ? v : -1);
+    }
+
+    private int indexOf(String vertexId) {
+        return this.indexOf(graph.getVertexById(vertexId));
+    }
+
+    // iterative Tarjan: the recursion is replaced by an explicit call stack with an edge cursor per vertex
+    private int findStrongComponents() {
+        int numVertices = vertices.size();
+        int[] order = new int[numVertices];         // order of discovery, -1 if not discovered yet
+        int[] lowLinks = new int[numVertices];
+        int[] cursors = new int[numVertices];
+        int[] callStack = new int[numVertices];
+        int[] tarjanStack = new int[numVertices];
+        boolean[] isOnStack = new boolean[numVertices];
+        Arrays.fill(order, -1);
+        int numDiscovered = 0, numComponents = 0, callTop = 0, tarjanTop = 0;
+
+        for (int root = 0; root < numVertices; root++) {
+            if (order[root] >= 0) continue;
+            order[root] = lowLinks[root] = numDiscovered++;
+            cursors[root] = offsets[root];
+            callStack[callTop++] = root;
+            tarjanStack[tarjanTop++] = root;
+            isOnStack[root] = true;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (cursors[v] < offsets[v + 1]) {
+                    int w = targets[cursors[v]++];
+                    if (order[w] < 0) {
+                        // descend into w
+                        order[w] = lowLinks[w] = numDiscovered++;
+                        cursors[w] = offsets[w];
+                        callStack[callTop++] = w;
+                        tarjanStack[tarjanTop++] = w;
+                        isOnStack[w] = true;
+                    } else if (isOnStack[w]) {
+                        lowLinks[v] = Math.min(lowLinks[v], order[w]);
+                    }
+                    continue;
+                }
+
+                // all edges of v have been explored: return from v
+                callTop--;
+                if (lowLinks[v] == order[v]) {
+                    int w;
+                    do {
+                        w = tarjanStack[--tarjanTop];
+                        isOnStack[w] = false;
+                        componentIds[w] = numComponents;
+                    } while (w != v);
+                    numComponents++;
+                }
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[v]);
+                }
+            }
+        }
+        return numComponents;
+    }
+
+    // union-find along all edges, with path halving
+    private int[] findWeakComponents() {
+        int numVertices = vertices.size();
+        int[] roots = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            roots[v] = v;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int r1 = findRoot(roots, v), r2 = findRoot(roots, targets[i]);
+                if (r1 != r2) roots[r1] = r2;
+            }
+        }
+        for (int v = 0; v < numVertices; v++) {
+            roots[v] = findRoot(roots, v);
+        }
+        return roots;
+    }
+
+    private static int findRoot(int[] roots, int v) {
+        while (roots[v] != v) {
+            roots[v] = roots[roots[v]];
+            v = roots[v];
+        }
+        return v;
+    }
+
+    int getNumComponents() {
+        return componentSizes.length;
+    }
+
+    int[] getComponentSizes() {
+        return componentSizes.clone();
+    }
+
+    /**
+     * @return  the id of the strongly connected component of the vertex, -1 if the vertex is not in the index
+     */
+    int getComponentId(String vertexId) {
+        int v = this.indexOf(vertexId);
+        return v >= 0 ? componentIds[v] : -1;
+    }
+
+    /**
+     * @return  false if a path from start to target certainly does not exist, true otherwise
+     */
+    boolean mayReach(String startId, String targetId) {
+        int start = this.indexOf(startId);
+        int target = this.indexOf(targetId);
+        if (start < 0 || target < 0) return true;
+        return weakComponentIds[start] == weakComponentIds[target] && componentIds[start] >= componentIds[target];
+    }
+}
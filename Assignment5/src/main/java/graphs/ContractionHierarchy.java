@@ -0,0 +1,504 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction Hierarchies provide fast shortest path queries on a DirectedGraph after a one-time preprocessing.
+ *
+ * The preprocessing contracts all vertices one by one, in the order of their edge difference
+ * (the number of shortcuts needed minus the number of edges removed by the contraction).
+ * Contracting a vertex v adds a shortcut u->w for every pair of edges u->v->w,
+ * unless a witness path from u to w that avoids v is at most as short.
+ * Vertices that are not adjacent to each other are contracted in parallel, one independent set at a time.
+ *
+ * A query runs a bidirectional dijkstra search that only follows edges upward in the hierarchy.
+ * The shortcuts along the resulting path are unpacked again into the original edges of the graph.
+ *
+ * The hierarchy captures the weights of the edges at the time of construction;
+ * changes of the graph afterwards are not reflected in the query results.
+ * Queries may be run concurrently from multiple threads; each query borrows its state from a bounded pool,
+ * like the searches on a FrozenGraph.
+ */
+public class ContractionHierarchy<V extends Identifiable, E> {
+
+    // bounds the effort of a single witness search;
+    // an unfinished witness search is harmless, it only results in a superfluous shortcut
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final DirectedGraph<V,E> graph;
+    private final List<V> vertices = new ArrayList<>();     // all vertices by their index in the hierarchy
+    private final Map<V,Integer> indices = new HashMap<>();
+    private final int numVertices;
+    private final int[] ranks;                              // the order in which the vertices have been contracted
+    private int numShortcuts = 0;
+
+    // the upward arcs v->w with ranks[w] > ranks[v], grouped by v in compressed rows
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upMiddles;          // the contracted vertex bypassed by a shortcut, -1 for an original edge
+    private final double[] upWeights;
+
+    // the downward arcs u->v with ranks[u] > ranks[v], grouped by v in compressed rows
+    // (these are followed in reverse direction by the backward search)
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final int[] downMiddles;
+    private final double[] downWeights;
+
+    private static final int MAX_IDLE_STATES = 2 * Runtime.getRuntime().availableProcessors();
+    // the query states that are not in use by a query
+    private final Queue<QueryState> idleStates = new ConcurrentLinkedQueue<>();
+
+    // an original edge or a shortcut during the preprocessing
+    private static class Arc {
+        private final int from;
+        private final int to;
+        private double weight;
+        private int middle;
+
+        private Arc(int from, int to, double weight, int middle) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.middle = middle;
+        }
+    }
+
+    // all arcs during preprocessing, including original edges and shortcuts, by from-vertex and by to-vertex
+    private List<List<Arc>> outArcs;
+    private List<List<Arc>> inArcs;
+    private boolean[] inBatch;              // marks the independent set of vertices that is being contracted
+    private int[] contractedNeighbours;
+
+    /**
+     * builds the contraction hierarchy of the given graph
+     * @param graph
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     *                      all weights should be non-negative
+     */
+    public ContractionHierarchy(DirectedGraph<V,E> graph, Function<E,Double> weightMapper) {
+        this.graph = graph;
+        for (V vertex : graph.getVertices()) {
+            this.indices.put(vertex, this.vertices.size());
+            this.vertices.add(vertex);
+        }
+        this.numVertices = this.vertices.size();
+        this.ranks = new int[numVertices];
+        Arrays.fill(this.ranks, -1);
+
+        this.outArcs = new ArrayList<>(numVertices);
+        this.inArcs = new ArrayList<>(numVertices);
+        for (int v = 0; v < numVertices; v++) {
+            this.outArcs.add(new ArrayList<>());
+            this.inArcs.add(new ArrayList<>());
+        }
+        for (int v = 0; v < numVertices; v++) {
+            for (V neighbour : graph.getNeighbours(this.vertices.get(v))) {
+                Integer w = this.indices.get(neighbour);
+                if (w == null || w == v) continue;
+                Arc arc = new Arc(v, w, weightMapper.apply(graph.getEdge(this.vertices.get(v), neighbour)), -1);
+                this.outArcs.get(v).add(arc);
+                this.inArcs.get(w).add(arc);
+            }
+        }
+
+        this.contractVertices();
+
+        // compile the arcs into the compact upward and downward search graphs
+        this.upOffsets = new int[numVertices + 1];
+        this.downOffsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            for (Arc arc : this.outArcs.get(v)) {
+                if (ranks[arc.to] > ranks[v]) upOffsets[v + 1]++;
+                else downOffsets[arc.to + 1]++;
+            }
+        }
+        for (int v = 0; v < numVertices; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        this.upTargets = new int[upOffsets[numVertices]];
+        this.upMiddles = new int[upOffsets[numVertices]];
+        this.upWeights = new double[upOffsets[numVertices]];
+        this.downSources = new int[downOffsets[numVertices]];
+        this.downMiddles = new int[downOffsets[numVertices]];
+        this.downWeights = new double[downOffsets[numVertices]];
+        int[] upNext = Arrays.copyOf(upOffsets, numVertices);
+        int[] downNext = Arrays.copyOf(downOffsets, numVertices);
+        for (int v = 0; v < numVertices; v++) {
+            for (Arc arc : this.outArcs.get(v)) {
+                if (ranks[arc.to] > ranks[v]) {
+                    int i = upNext[v]++;
+                    upTargets[i] = arc.to;
+                    upMiddles[i] = arc.middle;
+                    upWeights[i] = arc.weight;
+                } else {
+                    int i = downNext[arc.to]++;
+                    downSources[i] = v;
+                    downMiddles[i] = arc.middle;
+                    downWeights[i] = arc.weight;
+                }
+            }
+        }
+
+        // release the preprocessing data
+        this.outArcs = null;
+        this.inArcs = null;
+        this.inBatch = null;
+        this.contractedNeighbours = null;
+    }
+
+    /**
+     * @return  the number of shortcuts that have been added by the preprocessing
+     */
+    public int getNumShortcuts() {
+        return numShortcuts;
+    }
+
+    /**
+     * contracts all vertices, in rounds of independent sets of vertices
+     * which have a lower priority than all their remaining neighbours
+     */
+    private void contractVertices() {
+        this.inBatch = new boolean[numVertices];
+        this.contractedNeighbours = new int[numVertices];
+        int[] priorities = new int[numVertices];
+        IntStream.range(0, numVertices).parallel()
+                .forEach(v -> priorities[v] = this.priority(v));
+
+        int[] remaining = IntStream.range(0, numVertices).toArray();
+        int nextRank = 0;
+        while (remaining.length > 0) {
+            int[] batch = Arrays.stream(remaining)
+                    .filter(v -> this.isLocalMinimum(v, priorities))
+                    .toArray();
+            for (int v : batch) inBatch[v] = true;
+
+            // the witness searches of the batch are independent, because they avoid all vertices of the batch
+            List<List<Arc>> shortcuts = Arrays.stream(batch).parallel()
+                    .mapToObj(this::findShortcuts)
+                    .collect(Collectors.toList());
+
+            Set<Integer> affected = new HashSet<>();
+            for (int i = 0; i < batch.length; i++) {
+                int v = batch[i];
+                ranks[v] = nextRank++;
+                inBatch[v] = false;
+                for (Arc shortcut : shortcuts.get(i)) {
+                    this.addShortcut(shortcut);
+                }
+                for (Arc arc : outArcs.get(v)) {
+                    contractedNeighbours[arc.to]++;
+                    affected.add(arc.to);
+                }
+                for (Arc arc : inArcs.get(v)) {
+                    contractedNeighbours[arc.from]++;
+                    affected.add(arc.from);
+                }
+            }
+
+            remaining = Arrays.stream(remaining).filter(v -> ranks[v] < 0).toArray();
+            affected.parallelStream()
+                    .filter(v -> ranks[v] < 0)
+                    .forEach(v -> priorities[v] = this.priority(v));
+        }
+    }
+
+    // the edge difference of contracting v, plus the number of neighbours that have been contracted already
+    // the latter term spreads the contraction evenly across the graph
+    private int priority(int v) {
+        int numRemovedArcs = 0;
+        for (Arc arc : outArcs.get(v)) if (ranks[arc.to] < 0) numRemovedArcs++;
+        for (Arc arc : inArcs.get(v)) if (ranks[arc.from] < 0) numRemovedArcs++;
+        return this.findShortcuts(v).size() - numRemovedArcs + contractedNeighbours[v];
+    }
+
+    private boolean isLocalMinimum(int v, int[] priorities) {
+        for (Arc arc : outArcs.get(v)) {
+            if (ranks[arc.to] < 0 && precedes(arc.to, v, priorities)) return false;
+        }
+        for (Arc arc : inArcs.get(v)) {
+            if (ranks[arc.from] < 0 && precedes(arc.from, v, priorities)) return false;
+        }
+        return true;
+    }
+
+    private static boolean precedes(int u, int v, int[] priorities) {
+        return priorities[u] < priorities[v] || (priorities[u] == priorities[v] && u < v);
+    }
+
+    // a vertex is no longer available for witness paths once it has been contracted or is being contracted
+    private boolean isExcluded(int v) {
+        return ranks[v] >= 0 || inBatch[v];
+    }
+
+    /**
+     * determines the shortcuts that are needed to preserve all shortest paths through v
+     * when v is removed from the remaining graph
+     */
+    private List<Arc> findShortcuts(int v) {
+        List<Arc> shortcuts = new ArrayList<>();
+        for (Arc in : inArcs.get(v)) {
+            if (isExcluded(in.from)) continue;
+
+            double maxWeight = Double.NEGATIVE_INFINITY;
+            for (Arc out : outArcs.get(v)) {
+                if (out.to != in.from && !isExcluded(out.to)) {
+                    maxWeight = Math.max(maxWeight, in.weight + out.weight);
+                }
+            }
+            if (maxWeight < 0.0) continue;
+
+            Map<Integer,Double> witnessWeights = this.witnessSearch(in.from, v, maxWeight);
+            for (Arc out : outArcs.get(v)) {
+                if (out.to == in.from || isExcluded(out.to)) continue;
+                double shortcutWeight = in.weight + out.weight;
+                if (witnessWeights.getOrDefault(out.to, Double.POSITIVE_INFINITY) > shortcutWeight) {
+                    shortcuts.add(new Arc(in.from, out.to, shortcutWeight, v));
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * local dijkstra search from source among the remaining vertices, avoiding v
+     * @return  the weights of the shortest paths to all vertices that have been settled within maxWeight
+     */
+    private Map<Integer,Double> witnessSearch(int source, int v, double maxWeight) {
+        Map<Integer,Double> settled = new HashMap<>();
+        Map<Integer,Double> tentative = new HashMap<>();
+        PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        tentative.put(source, 0.0);
+        queue.offer(new double[] { 0.0, source });
+
+        while (!queue.isEmpty() && settled.size() < WITNESS_SETTLE_LIMIT) {
+            double[] entry = queue.poll();
+            int u = (int)entry[1];
+            if (settled.containsKey(u)) continue;
+            if (entry[0] > maxWeight) break;
+            settled.put(u, entry[0]);
+
+            for (Arc arc : outArcs.get(u)) {
+                if (arc.to == v || isExcluded(arc.to) || settled.containsKey(arc.to)) continue;
+                double weight = entry[0] + arc.weight;
+                if (weight < tentative.getOrDefault(arc.to, Double.POSITIVE_INFINITY)) {
+                    tentative.put(arc.to, weight);
+                    queue.offer(new double[] { weight, arc.to });
+                }
+            }
+        }
+        return settled;
+    }
+
+    // adds a shortcut or lowers the weight of an existing arc between the same vertices
+    private void addShortcut(Arc shortcut) {
+        for (Arc arc : outArcs.get(shortcut.from)) {
+            if (arc.to == shortcut.to) {
+                if (shortcut.weight < arc.weight) {
+                    arc.weight = shortcut.weight;
+                    arc.middle = shortcut.middle;
+                }
+                return;
+            }
+        }
+        outArcs.get(shortcut.from).add(shortcut);
+        inArcs.get(shortcut.to).add(shortcut);
+        numShortcuts++;
+    }
+
+    // reusable search data of the queries of a single thread
+    private static class QueryState {
+        private final double[][] weights;       // forward [0] and backward [1] weights of the search
+        private final int[][] parents;          // preceding vertex in the search tree of each direction
+        private final int[][] middles;          // middle vertex of the arc from the parent
+        private final int[][] stamps;           // the query in which the vertex has been reached
+        private final IntMinHeap[] heaps;
+        private final int[] touched;            // all vertices that have been reached by either search
+        private int numTouched;
+        private int stamp = 0;
+
+        private QueryState(int numVertices) {
+            weights = new double[2][numVertices];
+            parents = new int[2][numVertices];
+            middles = new int[2][numVertices];
+            stamps = new int[2][numVertices];
+            heaps = new IntMinHeap[] { new IntMinHeap(numVertices), new IntMinHeap(numVertices) };
+            touched = new int[2 * numVertices];
+        }
+
+        private void reset() {
+            if (stamp == Integer.MAX_VALUE) {
+                // restart the stamps before they wrap around to the stamps of earlier queries
+                Arrays.fill(stamps[0], 0);
+                Arrays.fill(stamps[1], 0);
+                stamp = 0;
+            }
+            stamp++;
+            numTouched = 0;
+            heaps[0].clear();
+            heaps[1].clear();
+        }
+
+        private double weightOf(int direction, int v) {
+            return stamps[direction][v] == stamp ? weights[direction][v] : Double.POSITIVE_INFINITY;
+        }
+
+        private void reach(int direction, int v, double weight, int parent, int middle) {
+            if (stamps[direction][v] != stamp) {
+                stamps[direction][v] = stamp;
+                touched[numTouched++] = v;
+            }
+            weights[direction][v] = weight;
+            parents[direction][v] = parent;
+            middles[direction][v] = middle;
+            heaps[direction].offerOrDecrease(v, weight);
+        }
+    }
+
+    /**
+     * Calculates the shortest path from start to target by a bidirectional upward search in the hierarchy
+     * All vertices that are being reached by either search are registered in path.visited
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @return  the shortest path from start to target, in terms of the original edges of the graph
+     *          returns null if either start or target cannot be matched with a vertex in the hierarchy
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath shortestPath(String startId, String targetId) {
+        Integer start = this.indices.get(graph.getVertexById(startId));
+        Integer target = this.indices.get(graph.getVertexById(targetId));
+        if (start == null || target == null) return null;
+
+        // easy target
+        if (start.equals(target)) {
+            V vertex = vertices.get(start);
+            return graph.createPath(List.of(vertex), 0.0, List.of(vertex));
+        }
+
+        QueryState state = this.acquireState();
+        try {
+            state.reach(0, start, 0.0, -1, -1);
+            state.reach(1, target, 0.0, -1, -1);
+            double bestWeight = Double.POSITIVE_INFINITY;
+            int meetingVertex = -1;
+
+            while (true) {
+                // each direction stops when it cannot improve the best connection anymore
+                double forwardWeight = state.heaps[0].isEmpty() ? Double.POSITIVE_INFINITY : state.heaps[0].peekKey();
+                double backwardWeight = state.heaps[1].isEmpty() ? Double.POSITIVE_INFINITY : state.heaps[1].peekKey();
+                if (forwardWeight >= bestWeight && backwardWeight >= bestWeight) break;
+                int direction = (forwardWeight <= backwardWeight ? 0 : 1);
+
+                int v = state.heaps[direction].poll();
+                double weight = state.weights[direction][v];
+                double connectionWeight = weight + state.weightOf(1 - direction, v);
+                if (connectionWeight < bestWeight) {
+                    bestWeight = connectionWeight;
+                    meetingVertex = v;
+                }
+
+                if (direction == 0) {
+                    for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                        int w = upTargets[i];
+                        if (weight + upWeights[i] < state.weightOf(0, w)) {
+                            state.reach(0, w, weight + upWeights[i], v, upMiddles[i]);
+                        }
+                    }
+                } else {
+                    for (int i = downOffsets[v]; i < downOffsets[v + 1]; i++) {
+                        int u = downSources[i];
+                        if (weight + downWeights[i] < state.weightOf(1, u)) {
+                            state.reach(1, u, weight + downWeights[i], v, downMiddles[i]);
+                        }
+                    }
+                }
+            }
+
+            if (meetingVertex < 0) {
+                // no path found, graph was not connected
+                return null;
+            }
+
+            // collect the arcs from start to the meeting vertex and from there to the target
+            Deque<int[]> arcs = new ArrayDeque<>();
+            for (int v = meetingVertex; v != start; v = state.parents[0][v]) {
+                arcs.addFirst(new int[] { state.parents[0][v], v, state.middles[0][v] });
+            }
+            for (int v = meetingVertex; v != target; v = state.parents[1][v]) {
+                arcs.addLast(new int[] { v, state.parents[1][v], state.middles[1][v] });
+            }
+
+            // unpack the shortcuts into original edges, summing the weights in the order of the path
+            List<V> pathVertices = new ArrayList<>();
+            pathVertices.add(vertices.get(start));
+            double totalWeight = 0.0;
+            for (int[] arc : arcs) {
+                totalWeight = this.unpack(arc[0], arc[1], arc[2], pathVertices, totalWeight);
+            }
+
+            List<V> visited = new ArrayList<>(state.numTouched);
+            for (int i = 0; i < state.numTouched; i++) {
+                visited.add(vertices.get(state.touched[i]));
+            }
+            return graph.createPath(pathVertices, totalWeight, visited);
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    // borrows a query state from the pool, or creates a new one if all states are in use
+    private QueryState acquireState() {
+        QueryState state = idleStates.poll();
+        if (state == null) state = new QueryState(this.numVertices);
+        state.reset();
+        return state;
+    }
+
+    // returns a query state to the pool, unless the pool is full already
+    private void releaseState(QueryState state) {
+        if (idleStates.size() < MAX_IDLE_STATES) idleStates.offer(state);
+    }
+
+    /**
+     * appends the original vertices of the arc from u to w (excluding u itself) to pathVertices
+     * @return  totalWeight increased by the weights of the original edges of the arc
+     */
+    private double unpack(int u, int w, int middle, List<V> pathVertices, double totalWeight) {
+        if (middle < 0) {
+            pathVertices.add(vertices.get(w));
+            return totalWeight + this.arcWeight(u, w);
+        }
+        // the middle vertex has a lower rank than both u and w
+        totalWeight = this.unpack(u, middle, this.arcMiddle(u, middle), pathVertices, totalWeight);
+        return this.unpack(middle, w, this.arcMiddle(middle, w), pathVertices, totalWeight);
+    }
+
+    // upward arcs are stored with their from-vertex, downward arcs with their to-vertex
+    private int arcIndex(int u, int w) {
+        if (ranks[w] > ranks[u]) {
+            for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                if (upTargets[i] == w) return i;
+            }
+        } else {
+            for (int i = downOffsets[w]; i < downOffsets[w + 1]; i++) {
+                if (downSources[i] == u) return i;
+            }
+        }
+        throw new IllegalStateException("Missing arc in contraction hierarchy from " + u + " to " + w);
+    }
+
+    private int arcMiddle(int u, int w) {
+        int i = this.arcIndex(u, w);
+        return ranks[w] > ranks[u] ? upMiddles[i] : downMiddles[i];
+    }
+
+    private double arcWeight(int u, int w) {
+        int i = this.arcIndex(u, w);
+        return ranks[w] > ranks[u] ? upWeights[i] : downWeights[i];
+    }
+}
@@ -0,0 +1,243 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * calculates the weights of the shortest paths from a single origin to all vertices of a FrozenGraph
+ * by the delta-stepping algorithm of Meyer and Sanders, which relaxes the edges of many vertices in parallel.
+ *
+ * The reached vertices are kept in buckets of width delta by their tentative weight, and the buckets are
+ * processed in order of increasing weight:
+ *  -   the light edges (weight <= delta) of all vertices in the current bucket are relaxed in parallel,
+ *      which is repeated as long as that moves vertices into the current bucket
+ *  -   then the heavy edges of all vertices that have been taken from the bucket are relaxed in parallel, once
+ * The vertices of a bucket are final when the bucket has been processed, like the settled vertices of dijkstra.
+ * A small delta approaches dijkstra with little work to share per bucket, a large delta approaches bellman-ford,
+ * which relaxes the edges of vertices repeatedly; the average weight of an edge is a reasonable choice.
+ *
+ * The tentative weights are stored as the bits of doubles in an AtomicLongArray and only ever lowered,
+ * by compare-and-set. Each weight ends as the minimum of weight(u) + weight(u,v) over all edges (u,v),
+ * in the same floating point arithmetic as dijkstra, so both find exactly the same weights.
+ * Every relaxation that wins the compare-and-set is reported with its edge, and the parent of a vertex
+ * is taken from the report whose weight is still the weight of the vertex once the relaxations have joined.
+ *
+ * The relaxations of large buckets are split into tasks of the common ForkJoinPool,
+ * while the buckets themselves are maintained by the calling thread in between.
+ * A search object is used for a single search only.
+ */
+class DeltaStepping<V extends Identifiable, E> {
+
+    private static final int SEQUENTIAL_THRESHOLD = 256;    // vertices per task below which no further tasks are forked
+    private static final long INFINITY_BITS = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+
+    private final FrozenGraph<V,E> graph;
+    private final double delta;
+    private final AtomicLongArray weights;
+    private final int[] parents;            // preceding vertex in the search tree, -1 for the origin and unreached vertices
+    // the buckets that hold vertices, by their index weight / delta
+    // a vertex may remain in a bucket after its weight has moved it to a lower bucket; it is skipped there
+    private final TreeMap<Long,IntBag> buckets = new TreeMap<>();
+    private final int[] phaseStamps;        // the last phase in which each vertex has been taken from a bucket
+    private final int[] bucketStamps;       // the last bucket from which each vertex has been taken
+    private int phase = 0;
+    private int bucket = 0;
+
+    // a growable array of vertex indices
+    private static class IntBag {
+        private int[] items = new int[16];
+        private int size = 0;
+
+        private void add(int item) {
+            if (size == items.length) items = Arrays.copyOf(items, 2 * size);
+            items[size++] = item;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+
+    // the relaxations that have lowered the weight of their target vertex, with the weight they have lowered it to
+    private static class Relaxations {
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] weights = new double[16];
+        private int size = 0;
+
+        private void add(int source, int target, double weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, 2 * size);
+                targets = Arrays.copyOf(targets, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+
+        private void addAll(Relaxations other) {
+            for (int i = 0; i < other.size; i++) {
+                this.add(other.sources[i], other.targets[i], other.weights[i]);
+            }
+        }
+    }
+
+    /**
+     * @param graph
+     * @param delta the width of the buckets, in the unit of the edge weights
+     */
+    DeltaStepping(FrozenGraph<V,E> graph, double delta) {
+        if (!(delta > 0.0 && delta < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("Invalid bucket width " + delta);
+        }
+        this.graph = graph;
+        this.delta = delta;
+        int numVertices = graph.getNumVertices();
+        this.weights = new AtomicLongArray(numVertices);
+        for (int v = 0; v < numVertices; v++) {
+            this.weights.set(v, INFINITY_BITS);
+        }
+        this.parents = new int[numVertices];
+        Arrays.fill(this.parents, -1);
+        this.phaseStamps = new int[numVertices];
+        this.bucketStamps = new int[numVertices];
+    }
+
+    /**
+     * @param origin
+     * @return  the weight of the shortest path from origin for each vertex index, infinity if no path exists
+     */
+    double[] search(int origin) {
+        this.weights.set(origin, Double.doubleToLongBits(0.0));
+        buckets.computeIfAbsent(0L, index -> new IntBag()).add(origin);
+
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long,IntBag> entry = buckets.pollFirstEntry();
+            long index = entry.getKey();
+            IntBag taken = new IntBag();
+            bucket++;
+            for (IntBag bag = entry.getValue(); bag != null; bag = buckets.remove(index)) {
+                int[] frontier = this.takeFrontier(bag, index, taken);
+                this.insert(this.relax(frontier, true));
+            }
+            this.insert(this.relax(taken.toArray(), false));
+        }
+
+        double[] result = new double[weights.length()];
+        for (int v = 0; v < result.length; v++) {
+            result[v] = this.weightOf(v);
+        }
+        return result;
+    }
+
+    // the distinct vertices of the bag that still belong to the bucket, which are also added to taken
+    private int[] takeFrontier(IntBag bag, long index, IntBag taken) {
+        phase++;
+        IntBag frontier = new IntBag();
+        for (int i = 0; i < bag.size; i++) {
+            int v = bag.items[i];
+            if (phaseStamps[v] == phase || this.bucketIndex(v) != index) continue;
+            phaseStamps[v] = phase;
+            frontier.add(v);
+            if (bucketStamps[v] != bucket) {
+                bucketStamps[v] = bucket;
+                taken.add(v);
+            }
+        }
+        return frontier.toArray();
+    }
+
+    /**
+     * @param v
+     * @return  the preceding vertex of v in the tree of shortest paths of the last search,
+     *          -1 for the origin and for unreached vertices
+     */
+    int parentOf(int v) {
+        return parents[v];
+    }
+
+    // adds the lowered vertices to the buckets of their current weights,
+    // and takes their parents from the relaxations that have set their current weights
+    private void insert(Relaxations improved) {
+        for (int i = 0; i < improved.size; i++) {
+            int v = improved.targets[i];
+            if (improved.weights[i] != this.weightOf(v)) continue;
+            parents[v] = improved.sources[i];
+            buckets.computeIfAbsent(this.bucketIndex(v), index -> new IntBag()).add(v);
+        }
+    }
+
+    private long bucketIndex(int v) {
+        return (long) (this.weightOf(v) / delta);
+    }
+
+    private double weightOf(int v) {
+        return Double.longBitsToDouble(weights.get(v));
+    }
+
+    /**
+     * relaxes the light or heavy edges of the frontier vertices, splitting the work over the ForkJoinPool if it is large
+     * @return  the relaxations that have lowered the weight of their target, possibly more than one per target
+     */
+    private Relaxations relax(int[] frontier, boolean light) {
+        if (frontier.length <= SEQUENTIAL_THRESHOLD) return this.relax(frontier, 0, frontier.length, light);
+        return ForkJoinPool.commonPool().invoke(new Relaxation(frontier, 0, frontier.length, light));
+    }
+
+    private class Relaxation extends RecursiveTask<Relaxations> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] frontier;
+        private final int from, to;
+        private final boolean light;
+
+        private Relaxation(int[] frontier, int from, int to, boolean light) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+
+        @Override
+        protected Relaxations compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) return relax(frontier, from, to, light);
+            int middle = (from + to) >>> 1;
+            Relaxation left = new Relaxation(frontier, from, middle, light);
+            left.fork();
+            Relaxations right = new Relaxation(frontier, middle, to, light).compute();
+            Relaxations improved = left.join();
+            improved.addAll(right);
+            return improved;
+        }
+    }
+
+    private Relaxations relax(int[] frontier, int from, int to, boolean light) {
+        Relaxations improved = new Relaxations();
+        for (int k = from; k < to; k++) {
+            int v = frontier[k];
+            double weight = this.weightOf(v);
+            for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                if ((graph.weights[i] <= delta) != light) continue;
+                int w = graph.targets[i];
+                if (this.lower(w, weight + graph.weights[i])) improved.add(v, w, weight + graph.weights[i]);
+            }
+        }
+        return improved;
+    }
+
+    // lowers the tentative weight of v atomically, and returns whether it has been lowered
+    private boolean lower(int v, double weight) {
+        long bits = weights.get(v);
+        while (weight < Double.longBitsToDouble(bits)) {
+            if (weights.compareAndSet(v, bits, Double.doubleToLongBits(weight))) return true;
+            bits = weights.get(v);
+        }
+        return false;
+    }
+}
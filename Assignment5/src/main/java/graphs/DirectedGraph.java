@@ -1,13 +1,21 @@
 package graphs;
 
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 public class DirectedGraph<V extends Identifiable, E> {
 
     private final Map<String,V> vertices = new HashMap<>();
+    private final List<V> indexedVertices = new ArrayList<>();
     private final Map<V,Map<V,E>> edges = new HashMap<>();
+    private final Map<V,Map<V,E>> reverseEdges = new HashMap<>();
+    // the strongly connected components, calculated upon demand and discarded upon changes that may affect them
+    private volatile ComponentIndex<V,E> componentIndex = null;
+    // receives the metrics of all searches, null if no metrics are collected
+    private volatile SearchMetricsSink searchMetricsSink = null;
 
     /** representation invariants:
         1.  the vertices map stores all vertices by their identifying id (which prevents duplicates)
@@ -16,6 +24,11 @@ public class DirectedGraph<V extends Identifiable, E> {
             one from v1 to v2 in edges.get(v1).get(v2)
             one from v2 to v1 in edges.get(v2).get(v1)
         4.  every vertex instance in the key-sets of edges shall also occur in the vertices map and visa versa
+        5.  the reverseEdges map stores the same edge instances by their to-vertex and then by their from-vertex:
+            edges.get(v1).get(v2) == reverseEdges.get(v2).get(v1)
+        6.  indexedVertices holds every vertex of the vertices map exactly once, in order of addition,
+            such that each vertex has a dense index 0 <= index < getNumVertices()
+            vertices that implement Indexed keep their own index: indexedVertices.get(v.getIndex()) == v
      **/
 
     public DirectedGraph() { }
@@ -34,6 +47,16 @@ public class DirectedGraph<V extends Identifiable, E> {
         return vertices.get(id);
     }
 
+    /**
+     * finds the vertex in the graph by its dense index
+     * indices are assigned in order of addition, and are renumbered by removeUnconnectedVertices
+     * @param index     0 <= index < getNumVertices()
+     * @return  the vertex at the given index
+     */
+    public V getVertexByIndex(int index) {
+        return indexedVertices.get(index);
+    }
+
     /**
      * retrieves the collection of neighbour vertices that can be reached directly
      * via an out-going directed edge from 'fromVertex'
@@ -55,6 +78,27 @@ public class DirectedGraph<V extends Identifiable, E> {
         return this.getNeighbours(this.getVertexById(fromVertexId));
     }
 
+    /**
+     * retrieves the collection of predecessor vertices that can reach 'toVertex' directly
+     * via an out-going directed edge towards 'toVertex'
+     * @param toVertex
+     * @return  null if toVertex cannot be found in the graph
+     *          an empty collection if toVertex has no predecessors
+     */
+    public Collection<V> getPredecessors(V toVertex) {
+        if (toVertex == null) return null;
+
+        if(reverseEdges.get(toVertex) != null){
+            return reverseEdges.get(toVertex).keySet();
+        }
+
+        return Collections.emptyList();
+    }
+
+    public Collection<V> getPredecessors(String toVertexId) {
+        return this.getPredecessors(this.getVertexById(toVertexId));
+    }
+
     /**
      * retrieves the collection of edges
      * which connects the 'fromVertex' with its neighbours
@@ -73,6 +117,25 @@ public class DirectedGraph<V extends Identifiable, E> {
         return Collections.emptyList();
     }
 
+    /**
+     * retrieves the collection of edges
+     * which connects the predecessors of 'toVertex' with 'toVertex'
+     * (only the in-coming edges directed from a predecessor towards 'toVertex' shall be included,
+     * in the same order as getPredecessors)
+     * @param toVertex
+     * @return  null if toVertex cannot be found in the graph
+     *          an empty collection if toVertex has no in-coming edges
+     */
+    public Collection<E> getIncomingEdges(V toVertex) {
+        if (toVertex == null) return null;
+
+        if(reverseEdges.get(toVertex) != null){
+            return reverseEdges.get(toVertex).values();
+        }
+
+        return Collections.emptyList();
+    }
+
     public Collection<E> getEdges(String fromId)  {
         return this.getEdges(this.getVertexById(fromId));
     }
@@ -86,12 +149,22 @@ public class DirectedGraph<V extends Identifiable, E> {
      *          or newVertex itself if it has been added.
      */
     public V addOrGetVertex(V newVertex) {
-        if(vertices.get(newVertex.getId()) == null){
+        V existingVertex = vertices.get(newVertex.getId());
+        if(existingVertex == null){
             vertices.put(newVertex.getId(), newVertex);
+            this.assignIndex(newVertex, indexedVertices.size());
+            indexedVertices.add(newVertex);
+            this.componentIndex = null;
             return newVertex;
         }
 
-        return vertices.get(newVertex.getId());
+        return existingVertex;
+    }
+
+    private void assignIndex(V vertex, int index) {
+        if (vertex instanceof Indexed) {
+            ((Indexed) vertex).setIndex(index);
+        }
     }
 
     /**
@@ -116,10 +189,12 @@ public class DirectedGraph<V extends Identifiable, E> {
             neighbourVertexMap = edges.get(fromVertex);
         }
 
+        fromVertex = this.addOrGetVertex(fromVertex);
+        toVertex = this.addOrGetVertex(toVertex);
         neighbourVertexMap.put(toVertex, newEdge);
-        vertices.put(fromVertex.getId(), fromVertex);
-        vertices.put(toVertex.getId(), toVertex);
         edges.put(fromVertex, neighbourVertexMap);
+        reverseEdges.computeIfAbsent(toVertex, v -> new HashMap<>()).put(fromVertex, newEdge);
+        this.edgeAdded(fromVertex, toVertex);
 
         return true;
 
@@ -148,6 +223,8 @@ public class DirectedGraph<V extends Identifiable, E> {
 
         neighbourVertexMap.put(vertices.get(toId), newEdge);
         edges.put(vertices.get(fromId), neighbourVertexMap);
+        reverseEdges.computeIfAbsent(vertices.get(toId), v -> new HashMap<>()).put(vertices.get(fromId), newEdge);
+        this.edgeAdded(vertices.get(fromId), vertices.get(toId));
 
         return true;
     }
@@ -220,15 +297,229 @@ public class DirectedGraph<V extends Identifiable, E> {
     public void removeUnconnectedVertices() {
         this.edges.entrySet().removeIf(e -> e.getValue().size() == 0);
         this.vertices.entrySet().removeIf(e -> !this.edges.containsKey(e.getValue()));
+        this.reverseEdges.keySet().removeIf(v -> !this.edges.containsKey(v));
+        this.indexedVertices.removeIf(v -> !this.edges.containsKey(v));
+        for (int index = 0; index < this.indexedVertices.size(); index++) {
+            this.assignIndex(this.indexedVertices.get(index), index);
+        }
+        this.componentIndex = null;
+    }
+
+    // an edge within a strongly connected component does not change the components, any other edge may merge them
+    private void edgeAdded(V fromVertex, V toVertex) {
+        ComponentIndex<V,E> index = this.componentIndex;
+        if (index == null) return;
+        int componentId = index.getComponentId(fromVertex.getId());
+        if (componentId < 0 || componentId != index.getComponentId(toVertex.getId())) {
+            this.componentIndex = null;
+        }
+    }
+
+    // the component index of the current graph, recalculated if it has been discarded
+    private ComponentIndex<V,E> componentIndex() {
+        ComponentIndex<V,E> index = this.componentIndex;
+        if (index == null) {
+            index = new ComponentIndex<>(this);
+            this.componentIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @param vertexId
+     * @return  the id of the strongly connected component of the vertex, -1 if the vertex cannot be found
+     *          components are numbered 0 <= id < getNumComponents(), such that a component
+     *          can only reach components with a lower id
+     */
+    public int getComponentId(String vertexId) {
+        return this.componentIndex().getComponentId(vertexId);
+    }
+
+    /**
+     * @return  the number of strongly connected components of the graph
+     */
+    public int getNumComponents() {
+        return this.componentIndex().getNumComponents();
+    }
+
+    /**
+     * @return  the number of vertices of each strongly connected component, by component id
+     */
+    public int[] getComponentSizes() {
+        return this.componentIndex().getComponentSizes();
+    }
+
+    /**
+     * checks in constant time whether a path from start to target can possibly exist,
+     * based on the strongly and weakly connected components of the graph
+     * @param startId
+     * @param targetId
+     * @return  false if no path exists from start to target,
+     *          true if a path may exist (and certainly exists if both are in the same strongly connected component)
+     */
+    public boolean mayReach(String startId, String targetId) {
+        return this.componentIndex().mayReach(startId, targetId);
+    }
+
+    /**
+     * registers a sink for the metrics of all subsequent searches on this graph (DFS, BFS, dijkstra, A*, ALT,
+     * bidirectional dijkstra and budgeted dijkstra). While a sink is registered, every search counts its work,
+     * publishes the metrics to the sink and attaches them to the path it returns (see DGPath.getMetrics).
+     * Without a sink, searches do not collect any metrics.
+     * @param sink  the receiver of the metrics, null to stop collecting metrics
+     */
+    public void setSearchMetricsSink(SearchMetricsSink sink) {
+        this.searchMetricsSink = sink;
+    }
+
+    // starts the metrics of a new search, or returns null if no metrics are being collected
+    private SearchMetrics startMetrics(String algorithm) {
+        return (this.searchMetricsSink != null ? new SearchMetrics(algorithm) : null);
+    }
+
+    // completes the metrics of a search, attaches them to its result path and publishes them
+    private DGPath finishMetrics(SearchMetrics metrics, DGPath path) {
+        if (metrics == null) return path;
+        metrics.finish(path != null);
+        if (path != null) path.metrics = metrics;
+        SearchMetricsSink sink = this.searchMetricsSink;
+        if (sink != null) sink.record(metrics);
+        return path;
+    }
+
+    /**
+     * compiles the graph into an immutable, int-indexed snapshot in compressed sparse row format
+     * with the weights of all edges calculated in advance.
+     * Searches on the snapshot avoid the hash lookups and boxing of the searches on this graph.
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @return
+     */
+    public FrozenGraph<V,E> freeze(ToDoubleFunction<E> weightMapper) {
+        return new FrozenGraph<>(this, weightMapper);
+    }
+
+    /**
+     * calculates the weights of the shortest paths from every source to every target
+     * by one dijkstra search per source on a frozen snapshot of the graph, running in parallel
+     * @param sourceIds     ids of the start vertices
+     * @param targetIds     ids of the target vertices
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @return  a dense matrix with the weight of the shortest path from sourceIds[s] to targetIds[t] at [s][t],
+     *          infinity if no such path exists or either id cannot be matched with a vertex in the graph
+     */
+    public double[][] distanceMatrix(List<String> sourceIds, List<String> targetIds,
+                                     ToDoubleFunction<E> weightMapper) {
+        return this.distanceMatrix(sourceIds, targetIds, weightMapper, false).getDistances();
+    }
+
+    /**
+     * calculates the weights of the shortest paths from every source to every target
+     * by one dijkstra search per source on a frozen snapshot of the graph, running in parallel
+     * @param sourceIds     ids of the start vertices
+     * @param targetIds     ids of the target vertices
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @param keepPaths     whether the predecessors along the shortest paths should be kept to reconstruct the paths
+     * @return  the distance matrix
+     */
+    public DistanceMatrix<V,E> distanceMatrix(List<String> sourceIds, List<String> targetIds,
+                                              ToDoubleFunction<E> weightMapper, boolean keepPaths) {
+        FrozenGraph<V,E> frozen = this.freeze(weightMapper);
+        return frozen.distanceMatrix(
+                sourceIds.stream().mapToInt(frozen::indexOf).toArray(),
+                targetIds.stream().mapToInt(frozen::indexOf).toArray(),
+                keepPaths);
+    }
+
+    /**
+     * finds the k shortest loopless paths from start to target, as alternatives for the shortest path,
+     * by Yen's algorithm on a frozen snapshot of the graph
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @param k             the maximum number of paths
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @return  at most k paths in order of increasing weight, with the vertices of each path as visited
+     *          returns an empty list if either start or target cannot be matched with a vertex in the graph
+     *                                  or no path can be found from start to target
+     */
+    public List<DGPath> kShortestPaths(String startId, String targetId, int k, Function<E,Double> weightMapper) {
+        return this.freeze(weightMapper::apply).kShortestPaths(startId, targetId, k);
+    }
+
+    /**
+     * finds the Pareto front of the paths from start to target on two criteria, e.g. length and travel time,
+     * by a bi-criteria label-setting search on frozen snapshots of the graph:
+     * every path of the front is lighter than each other path of the front in one of both criteria.
+     * Both criteria must be non-negative.
+     * @param startId               id of the start vertex of the search
+     * @param targetId              id of the target vertex of the search
+     * @param firstCriterion        provides the first weight of an edge
+     * @param secondCriterion       provides the second weight of an edge
+     * @param maxLabelsPerVertex    the maximum number of paths towards each vertex that the search continues from;
+     *                              a lower bound speeds up the search, but the front may miss paths if it is reached
+     * @return  the paths of the front by increasing first weight, with their first weight as totalWeight
+     *          and the vertices of each path as visited;
+     *          an empty front if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public ParetoFront<V,E> paretoShortestPaths(String startId, String targetId,
+                                                Function<E,Double> firstCriterion,
+                                                Function<E,Double> secondCriterion,
+                                                int maxLabelsPerVertex) {
+        if (getVertexById(startId) == null || getVertexById(targetId) == null || !this.mayReach(startId, targetId)) {
+            return new ParetoFront<>(new ArrayList<>(), new double[0], new double[0], true);
+        }
+        FrozenGraph<V,E> first = this.freeze(firstCriterion::apply);
+        FrozenGraph<V,E> second = this.freeze(secondCriterion::apply);
+        return new ParetoSearch<>(first, second, maxLabelsPerVertex)
+                .search(first.indexOf(startId), first.indexOf(targetId));
+    }
+
+    /**
+     * finds all vertices that can be reached from start by a path with a weight within the budget,
+     * by a dijkstra search that stops as soon as the next vertex to be settled would exceed the budget
+     * @param startId       id of the start vertex of the search
+     * @param budget        the maximum weight of the paths, e.g. a travel time of 0.5 hours
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @return  the weight of the shortest path towards each reachable vertex, in order of increasing weight
+     *          returns an empty map if start cannot be matched with a vertex in the graph
+     */
+    public Map<V,Double> reachableWithin(String startId, double budget, Function<E,Double> weightMapper) {
+        Map<V,Double> reachable = new LinkedHashMap<>();
+        V start = getVertexById(startId);
+        if (start == null) return reachable;
+
+        SearchMetrics metrics = this.startMetrics("Dijkstra-within-budget");
+        DSPFrontier frontier = new DSPFrontier(start, this.edges, null, null, metrics);
+        while (frontier.peekWeight() <= budget) {
+            DSPNode nextDspNode = frontier.settleNext();
+            reachable.put(nextDspNode.vertex, nextDspNode.weightSumTo);
+            frontier.relaxEdges(nextDspNode, null, weightMapper);
+        }
+        this.finishMetrics(metrics, null);
+        return reachable;
+    }
+
+    /**
+     * finds the vertices that can be reached within the budget from each of the starts
+     * by bounded dijkstra searches on a frozen snapshot of the graph, running in parallel
+     * @param startIds      ids of the start vertices
+     * @param budget        the maximum weight of the paths
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @return  per start, at the same position, the weight of the shortest path towards each reachable vertex
+     */
+    public List<Map<V,Double>> reachableWithin(List<String> startIds, double budget,
+                                              ToDoubleFunction<E> weightMapper) {
+        return this.freeze(weightMapper).reachableWithin(startIds, budget);
     }
 
     /**
      * represents a path of connected vertices and edges in the graph
      */
     public class DGPath {
-        private Deque<V> vertices = new LinkedList<>();
+        private Deque<V> vertices = new ArrayDeque<>();
         private double totalWeight = 0.0;
         private Set<V> visited = new HashSet<>();
+        private SearchMetrics metrics = null;
 
         /**
          * representation invariants:
@@ -264,6 +555,28 @@ public class DirectedGraph<V extends Identifiable, E> {
 
         public Set<V> getVisited() { return this.visited; }
 
+        /**
+         * @return  the metrics of the search that found this path, null if no metrics sink has been registered
+         */
+        public SearchMetrics getMetrics() {
+            return this.metrics;
+        }
+
+    }
+
+    /**
+     * creates a path from the results of a search that has been implemented outside this class
+     * @param pathVertices  the sequence of connected vertices from start to target
+     * @param totalWeight   the total weight of the edges along the path
+     * @param visited       the vertices that have been visited by the search
+     * @return
+     */
+    DGPath createPath(Collection<V> pathVertices, double totalWeight, Collection<V> visited) {
+        DGPath path = new DGPath();
+        path.vertices.addAll(pathVertices);
+        path.totalWeight = totalWeight;
+        path.visited.addAll(visited);
+        return path;
     }
 
     /**
@@ -276,42 +589,92 @@ public class DirectedGraph<V extends Identifiable, E> {
      *                          or no path can be found from start to target
      */
     public DGPath depthFirstSearch(String startId, String targetId) {
+        return this.depthFirstSearch(startId, targetId, true);
+    }
+
+    /**
+     * Uses a depth-first search algorithm to find a path from the start vertex to the target vertex in the graph
+     * The vertices along the path are registered in path.visited, unless collectVisited is false
+     * @param startId
+     * @param targetId
+     * @param collectVisited    whether path.visited should be filled, or be left empty if only the path is needed
+     * @return  the path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath depthFirstSearch(String startId, String targetId, boolean collectVisited) {
 
         V start = getVertexById(startId);
         V target = getVertexById(targetId);
         if (start == null || target == null) return null;
+        SearchMetrics metrics = this.startMetrics("DFS");
+        // reject unreachable targets without exploring the component of start
+        if (!this.mayReach(startId, targetId)) return this.finishMetrics(metrics, null);
 
-        return depthFirstSearchRecursion(start, target, new HashSet<>());
+        DGPath path = this.depthFirstSearch(start, target, new HashSet<>(), collectVisited, metrics);
+        return this.finishMetrics(metrics, path);
     }
 
+    /**
+     * finds a path from current to target by a depth-first search that skips the vertices in visited
+     * all vertices explored by the search are added to visited
+     * (despite its name, the search runs iteratively, such that long paths cannot overflow the call stack)
+     * @param current
+     * @param target
+     * @param visited
+     * @return  the path from current to target with the vertices of the path as visited, or null if none is found
+     */
     public DGPath depthFirstSearchRecursion(V current, V target, Set<V> visited){
+        SearchMetrics metrics = this.startMetrics("DFS");
+        return this.finishMetrics(metrics, this.depthFirstSearch(current, target, visited, true, metrics));
+    }
 
-        if(visited.contains(current)){
-            return null;
-        }
-
-        visited.add(current);
-
-        if(current.equals(target)){
-            DGPath path = new DGPath();
-            path.vertices.addLast(current);
-            path.visited.add(current);
-            return path;
+    // iterative depth-first search with an explicit stack of the vertices along the current path,
+    // and the iterators over their neighbours that remain to be explored
+    // explored receives all vertices reached by the search, path.visited only the vertices of the path if collectVisited
+    private DGPath depthFirstSearch(V start, V target, Set<V> explored, boolean collectVisited, SearchMetrics metrics) {
+        if (!explored.add(start)) return null;
+
+        Deque<V> stack = new ArrayDeque<>();
+        Deque<Iterator<V>> neighbourIterators = new ArrayDeque<>();
+        stack.push(start);
+        neighbourIterators.push(this.getNeighbours(start).iterator());
+        if (metrics != null) {
+            metrics.push(stack.size());
+            metrics.settled++;
         }
 
-        for(V neighbour : this.getNeighbours(current)){
-            DGPath path = depthFirstSearchRecursion(neighbour, target, visited);
-            if(path != null){
-                path.vertices.addFirst(current);
-                path.visited.add(current);
-                return path;
+        while (!stack.isEmpty() && !stack.peek().equals(target)) {
+            Iterator<V> neighbours = neighbourIterators.peek();
+            if (!neighbours.hasNext()) {
+                // all neighbours have been explored
+                stack.pop();
+                neighbourIterators.pop();
+                if (metrics != null) metrics.pops++;
+                continue;
+            }
+            V neighbour = neighbours.next();
+            if (metrics != null) metrics.relaxed++;
+            if (explored.add(neighbour)) {
+                stack.push(neighbour);
+                neighbourIterators.push(this.getNeighbours(neighbour).iterator());
+                if (metrics != null) {
+                    metrics.push(stack.size());
+                    metrics.settled++;
+                }
             }
         }
+        if (stack.isEmpty()) return null;
 
-        return null;
+        DGPath path = new DGPath();
+        // the stack holds the path from target back to start
+        for (V vertex : stack) {
+            path.vertices.addFirst(vertex);
+            if (collectVisited) path.visited.add(vertex);
+        }
+        return path;
     }
 
-
     /**
      * Uses a breadth-first search algorithm to find a path from the start vertex to the target vertex in the graph
      * All vertices that are being visited by the search should also be registered in path.visited
@@ -322,30 +685,53 @@ public class DirectedGraph<V extends Identifiable, E> {
      *                          or no path can be found from start to target
      */
     public DGPath breadthFirstSearch(String startId, String targetId) {
+        return this.breadthFirstSearch(startId, targetId, true);
+    }
+
+    /**
+     * Uses a breadth-first search algorithm to find a path from the start vertex to the target vertex in the graph
+     * The vertices that are being visited by the search are registered in path.visited, unless collectVisited is false
+     * @param startId
+     * @param targetId
+     * @param collectVisited    whether path.visited should be filled, or be left empty if only the path is needed
+     * @return  the path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath breadthFirstSearch(String startId, String targetId, boolean collectVisited) {
 
         V start = getVertexById(startId);
         V target = getVertexById(targetId);
         if (start == null || target == null) return null;
+        SearchMetrics metrics = this.startMetrics("BFS");
+        // reject unreachable targets without exploring the component of start
+        if (!this.mayReach(startId, targetId)) return this.finishMetrics(metrics, null);
 
         // initialise the result path of the search
         DGPath path = new DGPath();
         Map<V, V> visitedFrom = new HashMap<>();
-        Queue<V> fifoQueue = new LinkedList<>();
-        path.visited.add(start);
+        Queue<V> fifoQueue = new ArrayDeque<>();
+        if (collectVisited) path.visited.add(start);
 
         // easy target
         if (start.equals(target)) {
             path.vertices.add(target);
-            return path;
+            return this.finishMetrics(metrics, path);
         }
 
         fifoQueue.offer(start);
         visitedFrom.put(start, null);
         V current = fifoQueue.poll();
+        if (metrics != null) {
+            metrics.push(1);
+            metrics.pops++;
+        }
 
         while (current != null){
+            if (metrics != null) metrics.settled++;
 
             for(V neighbour : getNeighbours(current)){
+                if (metrics != null) metrics.relaxed++;
 
                 if(neighbour.equals(target)){
 
@@ -353,25 +739,27 @@ public class DirectedGraph<V extends Identifiable, E> {
 
                     while (current != null){
                         path.vertices.addFirst(current);
-                        path.visited.add(current);
+                        if (collectVisited) path.visited.add(current);
                         current = visitedFrom.get(current);
                     }
 
-                    return path;
+                    return this.finishMetrics(metrics, path);
                 }
 
                 else if(!visitedFrom.containsKey(neighbour)){
                     visitedFrom.put(neighbour, current);
-                    path.visited.add(neighbour);
+                    if (collectVisited) path.visited.add(neighbour);
                     fifoQueue.offer(neighbour);
+                    if (metrics != null) metrics.push(fifoQueue.size());
                 }
 
             }
 
             current = fifoQueue.poll();
+            if (metrics != null && current != null) metrics.pops++;
         }
 
-        return null;
+        return this.finishMetrics(metrics, null);
     }
 
     // helper class to build the spanning tree of visited vertices in dijkstra's shortest path algorithm
@@ -379,8 +767,10 @@ public class DirectedGraph<V extends Identifiable, E> {
     private class DSPNode implements Comparable<DSPNode> {
         protected V vertex;                // the graph vertex that is concerned with this DSPNode
         protected V fromVertex = null;     // the parent's node vertex that has an edge towards this node's vertex
+                                           // (or from this node's vertex, in a backward search)
         protected boolean marked = false;  // indicates DSP processing has been marked complete for this vertex
         protected double weightSumTo = Double.MAX_VALUE;   // sum of weights of current shortest path to this node's vertex
+        protected double estimatedWeightTo = 0.0;          // heuristic estimate of the remaining weight towards the target (A* only)
 
         private DSPNode(V vertex) {
             this.vertex = vertex;
@@ -395,9 +785,10 @@ public class DirectedGraph<V extends Identifiable, E> {
         }
 
         // comparable interface helps to find a node with the shortest current path, sofar
+        // (including the estimated remaining weight, which is zero for plain dijkstra)
         @Override
         public int compareTo(DSPNode dspv) {
-            return Double.compare(weightSumTo, dspv.weightSumTo);
+            return Double.compare(weightSumTo + estimatedWeightTo, dspv.weightSumTo + dspv.estimatedWeightTo);
         }
     }
 
@@ -413,10 +804,84 @@ public class DirectedGraph<V extends Identifiable, E> {
      */
     public DGPath dijkstraShortestPath(String startId, String targetId,
                                        Function<E,Double> weightMapper) {
+        return this.shortestPathSearch(startId, targetId, weightMapper, null, "Dijkstra");
+    }
+
+    /**
+     * Calculates the edge-weighted shortest path from start to target
+     * by the parallel delta-stepping algorithm on a frozen snapshot of the graph,
+     * which settles all vertices that can be reached from start with the same weights as Dijkstra's algorithm
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @param delta         the width of the buckets of vertices whose edges are relaxed in parallel,
+     *                      e.g. the average weight of an edge
+     * @return  the shortest path from start to target, with only the vertices of the path as visited
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath deltaSteppingShortestPath(String startId, String targetId,
+                                            Function<E,Double> weightMapper, double delta) {
+        return this.freeze(weightMapper::apply).deltaSteppingShortestPath(startId, targetId, delta);
+    }
+
+    /**
+     * Calculates the edge-weighted shortest path from start to target
+     * according to the A* algorithm, which directs the search of Dijkstra towards the target
+     * by means of a heuristic estimate of the remaining weight from any vertex to the target.
+     * The heuristic must never overestimate the remaining weight (admissible)
+     * and must satisfy the triangle inequality along every edge (consistent),
+     * otherwise the path found may not be the shortest one.
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @param heuristic     provides a lower bound of the weight of any path from the first vertex to the second (the target)
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath aStarShortestPath(String startId, String targetId,
+                                    Function<E,Double> weightMapper,
+                                    BiFunction<V,V,Double> heuristic) {
+        return this.shortestPathSearch(startId, targetId, weightMapper, heuristic, "A*");
+    }
+
+    /**
+     * Calculates the edge-weighted shortest path from start to target
+     * according to the A* algorithm with the lower bounds of a landmark index as heuristic (ALT)
+     * The landmark index should have been built with the same weights, or lower weights, than weightMapper provides
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @param landmarks     precalculated weights of shortest paths from and towards landmark vertices
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath altShortestPath(String startId, String targetId,
+                                  Function<E,Double> weightMapper,
+                                  LandmarkIndex landmarks) {
+        return this.shortestPathSearch(startId, targetId, weightMapper, landmarks::lowerBound, "ALT");
+    }
+
+    /**
+     * shared implementation of dijkstra and A*
+     * A* uses the same relaxation of edges, but orders the priority queue by weightSumTo + estimatedWeightTo
+     * @param heuristic     null for a plain dijkstra search
+     * @param algorithm     the name of the search in its metrics
+     */
+    private DGPath shortestPathSearch(String startId, String targetId,
+                                      Function<E,Double> weightMapper,
+                                      BiFunction<V,V,Double> heuristic, String algorithm) {
 
         V start = getVertexById(startId);
         V target = getVertexById(targetId);
         if (start == null || target == null) return null;
+        SearchMetrics metrics = this.startMetrics(algorithm);
+        // reject unreachable targets without exploring the component of start
+        if (!this.mayReach(startId, targetId)) {
+            return this.finishMetrics(metrics, null);
+        }
         // initialise the result path of the search
         DGPath path = new DGPath();
         path.visited.add(start);
@@ -424,82 +889,271 @@ public class DirectedGraph<V extends Identifiable, E> {
         // easy target
         if (start.equals(target)) {
             path.vertices.add(start);
-            return path;
+            return this.finishMetrics(metrics, path);
         }
 
-        // keep track of the DSP status of all visited nodes
-        // you may choose a different approach of tracking progress of the algorithm, if you wish
-        //Marked and edge relaxed
-        Map<V, DSPNode> progressData = new HashMap<>();
+        DSPFrontier frontier = new DSPFrontier(start, this.edges, heuristic, target, metrics);
 
-        // initialise the progress of the start node
-        DSPNode nextDspNode = new DSPNode(start);
-        nextDspNode.weightSumTo = 0.0;
-        progressData.put(start, nextDspNode);
+        while (frontier.hasNext()) {
 
-        while (nextDspNode != null) {
-
-            nextDspNode.setMarked(true);
+            DSPNode nextDspNode = frontier.settleNext();
 
             //Check if target is found
-            if (nextDspNode.vertex == target) {
+            if (nextDspNode.vertex.equals(target)) {
 
                 path.totalWeight = nextDspNode.weightSumTo;
 
                 //Add every predecessor vertex of the current nextDspNode (target) to the path
-                while (nextDspNode.vertex != null) {
-                    path.vertices.addFirst(nextDspNode.vertex);
-                    nextDspNode.vertex = progressData.get(nextDspNode.vertex).fromVertex;
+                V vertex = nextDspNode.vertex;
+                while (vertex != null) {
+                    path.vertices.addFirst(vertex);
+                    vertex = frontier.progressData.get(vertex).fromVertex;
                 }
 
-                return path;
+                return this.finishMetrics(metrics, path);
             }
-            
-            //Search new neighbours of current vertex and add them to the visited set
-            for(V neighbourVertex : getNeighbours(nextDspNode.vertex)){
 
-                path.visited.add(neighbourVertex);
+            frontier.relaxEdges(nextDspNode, path.visited, weightMapper);
+        }
 
-                DSPNode dspNode = new DSPNode(neighbourVertex);
-                dspNode.fromVertex = nextDspNode.vertex;
-                dspNode.setWeightSumTo(nextDspNode.weightSumTo + weightMapper.apply
-                        (getEdge(nextDspNode.vertex.getId(), dspNode.vertex.getId())));
+        // no path found, graph was not connected
+        return this.finishMetrics(metrics, null);
+    }
 
-                //Edge relaxation
-                if(progressData.getOrDefault(neighbourVertex, dspNode).weightSumTo >= dspNode.weightSumTo){
-                    progressData.put(neighbourVertex, dspNode);
+    /**
+     * Calculates the path from start to target with the earliest arrival when departing at the given time,
+     * for edge weights that vary with the time at which the edge is entered, e.g. by the daily traffic on a road.
+     * This is Dijkstra's algorithm on arrival times: each edge is weighed at the arrival time at its from-vertex,
+     * which finds the earliest arrival at every vertex if the weights satisfy the FIFO property.
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @param departureTime the time of departure from start
+     * @param weight        provides the weight of an edge at the time it is entered
+     * @return  the fastest path from start to target, with the total time from departure until arrival as totalWeight
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath timeDependentShortestPath(String startId, String targetId, double departureTime,
+                                            TimeDependentWeight<E> weight) {
+        V start = getVertexById(startId);
+        V target = getVertexById(targetId);
+        if (start == null || target == null) return null;
+        SearchMetrics metrics = this.startMetrics("Time-dependent-Dijkstra");
+        if (!this.mayReach(startId, targetId)) return this.finishMetrics(metrics, null);
+
+        DGPath path = new DGPath();
+        path.visited.add(start);
+        // the weightSumTo of the frontier is the time elapsed since departure
+        DSPFrontier frontier = new DSPFrontier(start, this.edges, null, null, metrics);
+        while (frontier.hasNext()) {
+            DSPNode nextDspNode = frontier.settleNext();
+            if (nextDspNode.vertex.equals(target)) {
+                path.totalWeight = nextDspNode.weightSumTo;
+                V vertex = nextDspNode.vertex;
+                while (vertex != null) {
+                    path.vertices.addFirst(vertex);
+                    vertex = frontier.progressData.get(vertex).fromVertex;
                 }
+                return this.finishMetrics(metrics, path);
+            }
+            double arrivalTime = departureTime + nextDspNode.weightSumTo;
+            frontier.relaxEdges(nextDspNode, path.visited, edge -> weight.weightAt(edge, arrivalTime));
+        }
+        return this.finishMetrics(metrics, null);
+    }
 
+    /**
+     * Calculates the edge-weighted shortest path from start to target
+     * by running Dijkstra's algorithm simultaneously forward from the start and backward from the target
+     * (along the reverse edges), until the two search frontiers meet.
+     * Each step expands the frontier with the lowest weight sofar, and the search stops
+     * when the two lowest weights together cannot improve the best connection found between the frontiers.
+     * All vertices that are being visited by either search are registered in path.visited
+     * @param startId       id of the start vertex of the search
+     * @param targetId      id of the target vertex of the search
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DGPath bidirectionalDijkstraShortestPath(String startId, String targetId,
+                                                    Function<E,Double> weightMapper) {
+
+        V start = getVertexById(startId);
+        V target = getVertexById(targetId);
+        if (start == null || target == null) return null;
+        SearchMetrics metrics = this.startMetrics("Bidirectional-Dijkstra");
+        // reject unreachable targets without exploring the component of start
+        if (!this.mayReach(startId, targetId)) {
+            return this.finishMetrics(metrics, null);
+        }
+        // initialise the result path of the search
+        DGPath path = new DGPath();
+        path.visited.add(start);
+
+        // easy target
+        if (start.equals(target)) {
+            path.vertices.add(start);
+            return this.finishMetrics(metrics, path);
+        }
+        path.visited.add(target);
+
+        // the frontiers share the metrics, so the peak frontier is the peak of either of both
+        DSPFrontier forward = new DSPFrontier(start, this.edges, null, null, metrics);
+        DSPFrontier backward = new DSPFrontier(target, this.reverseEdges, null, null, metrics);
+        double bestWeight = Double.POSITIVE_INFINITY;
+        V meetingVertex = null;
+
+        while (true) {
+            double forwardWeight = forward.peekWeight();
+            double backwardWeight = backward.peekWeight();
+            // also stops when either frontier is exhausted
+            if (forwardWeight + backwardWeight >= bestWeight) break;
+
+            DSPFrontier active = (forwardWeight <= backwardWeight ? forward : backward);
+            DSPFrontier other = (active == forward ? backward : forward);
+            DSPNode settled = active.settleNext();
+            active.relaxEdges(settled, path.visited, weightMapper);
+
+            // check whether the settled vertex or any of its relaxed neighbours connects both frontiers
+            for (V vertex : active.adjacency.getOrDefault(settled.vertex, Collections.emptyMap()).keySet()) {
+                double connectionWeight = active.weightSumTo(vertex) + other.weightSumTo(vertex);
+                if (connectionWeight < bestWeight) {
+                    bestWeight = connectionWeight;
+                    meetingVertex = vertex;
+                }
+            }
+            double connectionWeight = settled.weightSumTo + other.weightSumTo(settled.vertex);
+            if (connectionWeight < bestWeight) {
+                bestWeight = connectionWeight;
+                meetingVertex = settled.vertex;
             }
+        }
 
-            //Variables to help search new nextDspNode
-            double maxvalue = Double.MAX_VALUE;
-            DSPNode prevNextDspNode = nextDspNode;
+        if (meetingVertex == null) {
+            // no path found, graph was not connected
+            return this.finishMetrics(metrics, null);
+        }
 
-            //Search for DSPnode in progressData which is unmarked and has the smallest weight
-            for(Map.Entry<V, DSPNode> progressVertex : progressData.entrySet()){
+        path.totalWeight = bestWeight;
+        // the forward tree provides the path from start to the meeting vertex
+        V vertex = meetingVertex;
+        while (vertex != null) {
+            path.vertices.addFirst(vertex);
+            vertex = forward.progressData.get(vertex).fromVertex;
+        }
+        // the backward tree provides the path from the meeting vertex to the target
+        vertex = backward.progressData.get(meetingVertex).fromVertex;
+        while (vertex != null) {
+            path.vertices.addLast(vertex);
+            vertex = backward.progressData.get(vertex).fromVertex;
+        }
 
-                if(!progressVertex.getValue().marked){
+        return this.finishMetrics(metrics, path);
+    }
 
-                    if(progressVertex.getValue().weightSumTo < maxvalue){
-                        nextDspNode = progressVertex.getValue();
-                    }
+    // helper class to track the progress of a single dijkstra or A* search from an origin vertex
+    // along the given adjacency map (edges for a forward search, reverseEdges for a backward search)
+    private class DSPFrontier {
+        private final Map<V,Map<V,E>> adjacency;
+        private final BiFunction<V,V,Double> heuristic;
+        private final V target;
+        private final SearchMetrics metrics;    // null if no metrics are collected
 
-                }
+        // keep track of the DSP status of all visited nodes
+        private final Map<V, DSPNode> progressData = new HashMap<>();
+
+        // the priority queue holds candidate nodes ordered by their DSPNode.compareTo,
+        // i.e. by the weight of the shortest path found sofar.
+        // instead of a decrease-key operation a fresh node is offered upon each improvement,
+        // and outdated (lazily deleted) entries are skipped when they surface at the head of the queue
+        private final PriorityQueue<DSPNode> priorityQueue = new PriorityQueue<>();
+
+        private DSPFrontier(V origin, Map<V,Map<V,E>> adjacency, BiFunction<V,V,Double> heuristic, V target,
+                            SearchMetrics metrics) {
+            this.adjacency = adjacency;
+            this.heuristic = heuristic;
+            this.target = target;
+            this.metrics = metrics;
+
+            // initialise the progress of the origin node
+            DSPNode originDspNode = new DSPNode(origin);
+            originDspNode.weightSumTo = 0.0;
+            progressData.put(origin, originDspNode);
+            this.offer(originDspNode);
+        }
 
+        private void offer(DSPNode dspNode) {
+            priorityQueue.offer(dspNode);
+            if (metrics != null) metrics.push(priorityQueue.size());
+        }
 
-            }
+        private DSPNode poll() {
+            if (metrics != null) metrics.pops++;
+            return priorityQueue.poll();
+        }
 
-            //If no new nextDspNode was found there is no path possible between start and target
-            if(prevNextDspNode == nextDspNode){
-                return null;
+        // skips entries that have been superseded by a shorter path or have been processed already
+        private boolean hasNext() {
+            while (!priorityQueue.isEmpty() &&
+                    (priorityQueue.peek().marked || progressData.get(priorityQueue.peek().vertex) != priorityQueue.peek())) {
+                this.poll();
             }
+            return !priorityQueue.isEmpty();
+        }
+
+        // the weight of the next node to be settled, or infinity if the frontier has been exhausted
+        private double peekWeight() {
+            return this.hasNext() ? priorityQueue.peek().weightSumTo : Double.POSITIVE_INFINITY;
+        }
 
+        // the weight of the shortest path found sofar to the vertex, or infinity if not reached yet
+        private double weightSumTo(V vertex) {
+            DSPNode dspNode = progressData.get(vertex);
+            return dspNode != null ? dspNode.weightSumTo : Double.POSITIVE_INFINITY;
         }
 
-        // no path found, graph was not connected ???
-        System.out.println("no path");
-        return null;
+        // marks the next node in the priority queue as processed
+        // precondition: hasNext()
+        private DSPNode settleNext() {
+            DSPNode nextDspNode = this.poll();
+            nextDspNode.setMarked(true);
+            if (metrics != null) metrics.settled++;
+            return nextDspNode;
+        }
+
+        // relaxes the edges of a settled node
+        // all neighbours of the node are registered in visited, unless visited is null
+        private void relaxEdges(DSPNode nextDspNode, Set<V> visited, Function<E,Double> weightMapper) {
+
+            //Search new neighbours of current vertex and add them to the visited set
+            Map<V, E> neighbourEdges = adjacency.getOrDefault(nextDspNode.vertex, Collections.emptyMap());
+            for (Map.Entry<V, E> neighbourEdge : neighbourEdges.entrySet()) {
+                V neighbourVertex = neighbourEdge.getKey();
+                if (metrics != null) metrics.relaxed++;
+
+                if (visited != null) visited.add(neighbourVertex);
+
+                DSPNode oldDspNode = progressData.get(neighbourVertex);
+                if (oldDspNode != null && oldDspNode.marked) continue;
+
+                double weightSumTo = nextDspNode.weightSumTo + weightMapper.apply(neighbourEdge.getValue());
+
+                //Edge relaxation
+                if (oldDspNode == null || weightSumTo < oldDspNode.weightSumTo) {
+                    DSPNode dspNode = new DSPNode(neighbourVertex);
+                    dspNode.fromVertex = nextDspNode.vertex;
+                    dspNode.setWeightSumTo(weightSumTo);
+                    if (heuristic != null) {
+                        // the estimate only depends on the vertex, so it can be reused from an earlier visit
+                        dspNode.estimatedWeightTo = (oldDspNode != null ? oldDspNode.estimatedWeightTo :
+                                heuristic.apply(neighbourVertex, target));
+                    }
+                    progressData.put(neighbourVertex, dspNode);
+                    this.offer(dspNode);
+                }
+            }
+        }
     }
 
 
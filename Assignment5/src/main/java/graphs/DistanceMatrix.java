@@ -0,0 +1,63 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * the weights of the shortest paths between a list of sources and a list of targets in a graph,
+ * optionally with the search trees to reconstruct these paths
+ */
+public class DistanceMatrix<V extends Identifiable, E> {
+
+    private final FrozenGraph<V,E> frozenGraph;
+    private final DirectedGraph<V,E> graph;
+    private final int[] targets;
+    private final double[][] distances;     // distances[s][t] = weight of the shortest path, infinity if none exists
+    private final int[][] treeVertices;     // per source: the vertices on the paths towards the targets, sorted by index
+    private final int[][] treeParents;      // per source: the parent of each vertex in treeVertices
+
+    DistanceMatrix(FrozenGraph<V,E> frozenGraph, DirectedGraph<V,E> graph,
+                   int[] targets, double[][] distances,
+                   int[][] treeVertices, int[][] treeParents) {
+        this.frozenGraph = frozenGraph;
+        this.graph = graph;
+        this.targets = targets;
+        this.distances = distances;
+        this.treeVertices = treeVertices;
+        this.treeParents = treeParents;
+    }
+
+    /**
+     * @return  the dense matrix of weights of the shortest paths
+     *          distances[s][t] is infinity if no path exists from source s to target t, or either is unknown
+     */
+    public double[][] getDistances() {
+        return distances;
+    }
+
+    public double getDistance(int sourceIndex, int targetIndex) {
+        return distances[sourceIndex][targetIndex];
+    }
+
+    public boolean hasPaths() {
+        return treeVertices != null;
+    }
+
+    /**
+     * reconstructs the shortest path between a source and a target of the matrix
+     * @param sourceIndex   the position of the source in the list of sources of the matrix
+     * @param targetIndex   the position of the target in the list of targets of the matrix
+     * @return  the shortest path from the source to the target, with the vertices of the path as visited
+     *          returns null if no path exists or the paths have not been kept
+     */
+    public DirectedGraph<V,E>.DGPath getPath(int sourceIndex, int targetIndex) {
+        if (!hasPaths() || distances[sourceIndex][targetIndex] == Double.POSITIVE_INFINITY) return null;
+
+        int[] vertices = treeVertices[sourceIndex];
+        int[] parents = treeParents[sourceIndex];
+        Deque<V> pathVertices = new ArrayDeque<>();
+        for (int v = targets[targetIndex]; v >= 0; v = parents[Arrays.binarySearch(vertices, v)]) {
+            pathVertices.addFirst(frozenGraph.getVertex(v));
+        }
+        return graph.createPath(pathVertices, distances[sourceIndex][targetIndex], pathVertices);
+    }
+}
@@ -0,0 +1,645 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * an immutable snapshot of a DirectedGraph in compressed sparse row format,
+ * with vertices identified by their index 0 <= v < getNumVertices() in the graph at the time of freezing
+ * and the weights of all edges calculated in advance:
+ *      the outgoing edges of vertex v are found at positions offsets[v] <= i < offsets[v+1]
+ *      targets[i] holds the index of the to-vertex of edge i and weights[i] holds its weight
+ * The incoming edges are stored likewise in reverseOffsets, reverseSources and reverseWeights, for backward searches.
+ * The edges of each vertex are stored in the same order as DirectedGraph.getNeighbours provides them.
+ *
+ * Searches on the snapshot run without allocating memory, apart from the result path,
+ * by reusing the arrays of search states from a pool. Each search borrows a state and returns it when it completes,
+ * so concurrent searches use separate states, and the pool keeps at most MAX_IDLE_STATES states for later searches.
+ * Unlike states per thread, the states do not outlive the snapshot, and short-lived threads reuse them as well.
+ * Changes of the graph after freezing it are not reflected in the snapshot.
+ */
+public class FrozenGraph<V extends Identifiable, E> {
+
+    private final DirectedGraph<V,E> graph;
+    final List<V> vertices;                 // all vertices by their index
+    private final Map<String,Integer> indices;
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    final int[] reverseOffsets;
+    final int[] reverseSources;
+    final double[] reverseWeights;
+
+    private static final int MAX_IDLE_STATES = 2 * Runtime.getRuntime().availableProcessors();
+    // the search states that are not in use by a search
+    private final Queue<SearchState> idleStates = new ConcurrentLinkedQueue<>();
+
+    FrozenGraph(DirectedGraph<V,E> graph, ToDoubleFunction<E> weightMapper) {
+        this.graph = graph;
+        int numVertices = graph.getNumVertices();
+        this.vertices = new ArrayList<>(numVertices);
+        this.indices = new HashMap<>();
+        // the snapshot adopts the dense vertex indices of the graph
+        for (int v = 0; v < numVertices; v++) {
+            V vertex = graph.getVertexByIndex(v);
+            this.indices.put(vertex.getId(), v);
+            this.vertices.add(vertex);
+        }
+
+        this.offsets = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++) {
+            this.offsets[v + 1] = this.offsets[v] + graph.getNeighbours(this.vertices.get(v)).size();
+        }
+        this.targets = new int[this.offsets[numVertices]];
+        this.weights = new double[this.offsets[numVertices]];
+        for (int v = 0; v < numVertices; v++) {
+            V from = this.vertices.get(v);
+            int i = this.offsets[v];
+            for (V to : graph.getNeighbours(from)) {
+                this.targets[i] = this.indices.get(to.getId());
+                this.weights[i] = weightMapper.applyAsDouble(graph.getEdge(from, to));
+                i++;
+            }
+        }
+
+        // transpose the edges into the reverse rows
+        this.reverseOffsets = new int[numVertices + 1];
+        for (int target : this.targets) {
+            this.reverseOffsets[target + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            this.reverseOffsets[v + 1] += this.reverseOffsets[v];
+        }
+        this.reverseSources = new int[this.targets.length];
+        this.reverseWeights = new double[this.targets.length];
+        int[] next = Arrays.copyOf(this.reverseOffsets, numVertices);
+        for (int v = 0; v < numVertices; v++) {
+            for (int i = this.offsets[v]; i < this.offsets[v + 1]; i++) {
+                int j = next[this.targets[i]]++;
+                this.reverseSources[j] = v;
+                this.reverseWeights[j] = this.weights[i];
+            }
+        }
+    }
+
+    public int getNumVertices() {
+        return vertices.size();
+    }
+
+    public int getNumEdges() {
+        return targets.length;
+    }
+
+    /**
+     * @param id
+     * @return  the index of the vertex identified by id, or -1 if the snapshot has no such vertex
+     */
+    public int indexOf(String id) {
+        Integer index = indices.get(id);
+        return index != null ? index : -1;
+    }
+
+    public V getVertex(int index) {
+        return vertices.get(index);
+    }
+
+    /**
+     * borrows a search state from the pool, or creates a new one if all states are in use
+     * the state must be returned by releaseState when the search has completed
+     * @return  a search state, reset for a new search
+     */
+    SearchState acquireState() {
+        SearchState state = idleStates.poll();
+        if (state == null) state = new SearchState(getNumVertices());
+        state.reset();
+        return state;
+    }
+
+    /**
+     * returns a search state to the pool, unless the pool is full already
+     * @param state     a state from acquireState, which is no longer used
+     */
+    void releaseState(SearchState state) {
+        if (idleStates.size() < MAX_IDLE_STATES) idleStates.offer(state);
+    }
+
+    /**
+     * Uses an iterative depth-first search to find a path from the start vertex to the target vertex,
+     * which explores the edges in the same order as DirectedGraph.depthFirstSearch
+     * Only the vertices along the path are registered in path.visited, as in DirectedGraph.depthFirstSearch
+     * @param startId
+     * @param targetId
+     * @return  the path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath depthFirstSearch(String startId, String targetId) {
+        return this.depthFirstSearch(startId, targetId, true);
+    }
+
+    /**
+     * Uses an iterative depth-first search to find a path from the start vertex to the target vertex,
+     * with an int[] stack of the vertices along the current path and an int[] cursor of the next edge per vertex
+     * @param startId
+     * @param targetId
+     * @param collectVisited    whether path.visited should be filled, or be left empty if only the path is needed
+     * @return  the path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath depthFirstSearch(String startId, String targetId, boolean collectVisited) {
+        int start = indexOf(startId);
+        int target = indexOf(targetId);
+        if (start < 0 || target < 0) return null;
+
+        SearchState state = this.acquireState();
+        try {
+            int[] stack = state.queue;
+            int stackSize = 0;
+            state.reach(start);
+            stack[stackSize++] = start;
+            state.cursors[start] = offsets[start];
+
+            while (stackSize > 0 && stack[stackSize - 1] != target) {
+                int v = stack[stackSize - 1];
+                if (state.cursors[v] == offsets[v + 1]) {
+                    // all neighbours have been explored
+                    stackSize--;
+                    continue;
+                }
+                int w = targets[state.cursors[v]++];
+                if (state.reach(w)) {
+                    stack[stackSize++] = w;
+                    state.cursors[w] = offsets[w];
+                }
+            }
+            if (stackSize == 0) return null;
+
+            List<V> pathVertices = new ArrayList<>(stackSize);
+            for (int i = 0; i < stackSize; i++) {
+                pathVertices.add(vertices.get(stack[i]));
+            }
+            return graph.createPath(pathVertices, 0.0, collectVisited ? pathVertices : Collections.emptyList());
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    /**
+     * Uses a breadth-first search to find a path with the minimum number of edges from the start vertex to the target vertex
+     * The vertices are registered in path.visited as in DirectedGraph.breadthFirstSearch:
+     * the start and all vertices that have been queued before the target was found
+     * @param startId
+     * @param targetId
+     * @return  the path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath breadthFirstSearch(String startId, String targetId) {
+        return this.breadthFirstSearch(startId, targetId, true);
+    }
+
+    /**
+     * Uses a breadth-first search to find a path with the minimum number of edges from the start vertex to the target vertex,
+     * with an int[] fifo queue and the int[] parents of the search state
+     * @param startId
+     * @param targetId
+     * @param collectVisited    whether path.visited should be filled, or be left empty if only the path is needed
+     * @return  the path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath breadthFirstSearch(String startId, String targetId, boolean collectVisited) {
+        int start = indexOf(startId);
+        int target = indexOf(targetId);
+        if (start < 0 || target < 0) return null;
+
+        SearchState state = this.acquireState();
+        try {
+            int[] fifoQueue = state.queue;
+            int head = 0, tail = 0;
+            state.reach(start);
+            fifoQueue[tail++] = start;
+
+            while (head < tail && !state.isReached(target)) {
+                int v = fifoQueue[head++];
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int w = targets[i];
+                    if (state.reach(w)) {
+                        state.parents[w] = v;
+                        // the target is not being queued, so the search stops right here
+                        if (w == target) break;
+                        fifoQueue[tail++] = w;
+                    }
+                }
+            }
+            if (!state.isReached(target)) return null;
+
+            DirectedGraph<V,E>.DGPath path = this.buildPath(state, target, 0.0, collectVisited);
+            // the target is not visited by the search, unless it is the start
+            if (target != start) path.getVisited().remove(vertices.get(target));
+            return path;
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    /**
+     * Calculates the shortest path from start to target according to Dijkstra's algorithm,
+     * using the edge weights of the snapshot
+     * All vertices that are being reached by the search are registered in path.visited
+     * @param startId
+     * @param targetId
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath dijkstraShortestPath(String startId, String targetId) {
+        return this.dijkstraShortestPath(startId, targetId, true);
+    }
+
+    /**
+     * Calculates the shortest path from start to target according to Dijkstra's algorithm,
+     * using the edge weights of the snapshot
+     * @param startId
+     * @param targetId
+     * @param collectVisited    whether path.visited should be filled, or be left empty if only the path is needed
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath dijkstraShortestPath(String startId, String targetId, boolean collectVisited) {
+        int start = indexOf(startId);
+        int target = indexOf(targetId);
+        if (start < 0 || target < 0) return null;
+
+        SearchState state = this.acquireState();
+        try {
+            if (!this.dijkstraSearch(state, start, target)) return null;
+            return this.buildPath(state, target, state.weights[target], collectVisited);
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    /**
+     * calculates the weights of the shortest paths from the origin to all vertices,
+     * or from all vertices to the origin if reverse is set
+     * @param origin
+     * @param reverse   whether to search backward along the incoming edges
+     * @return  the weight of the shortest path for each vertex index, infinity if no path exists
+     */
+    double[] shortestPathWeights(int origin, boolean reverse) {
+        SearchState state = this.acquireState();
+        try {
+            this.dijkstraSearch(state, origin, -1, reverse);
+            double[] result = new double[getNumVertices()];
+            for (int v = 0; v < result.length; v++) {
+                result[v] = state.weightOf(v);
+            }
+            return result;
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    /**
+     * calculates the weights of the shortest paths from start to all vertices by dijkstra's algorithm
+     * @param startId
+     * @return  the weight of the shortest path for each vertex index, infinity if no path exists
+     *          returns null if start cannot be matched with a vertex in the graph
+     */
+    public double[] shortestPathWeights(String startId) {
+        int start = indexOf(startId);
+        if (start < 0) return null;
+        return this.shortestPathWeights(start, false);
+    }
+
+    /**
+     * calculates the weights of the shortest paths from start to all vertices by parallel delta-stepping,
+     * which finds exactly the same weights as shortestPathWeights
+     * @param startId
+     * @param delta     the width of the buckets of vertices whose edges are relaxed in parallel,
+     *                  e.g. the average weight of an edge
+     * @return  the weight of the shortest path for each vertex index, infinity if no path exists
+     *          returns null if start cannot be matched with a vertex in the graph
+     */
+    public double[] deltaSteppingWeights(String startId, double delta) {
+        int start = indexOf(startId);
+        if (start < 0) return null;
+        return new DeltaStepping<>(this, delta).search(start);
+    }
+
+    /**
+     * Calculates the shortest path from start to target by parallel delta-stepping,
+     * as an alternative for dijkstraShortestPath when the weights towards many vertices are needed as well.
+     * Only the vertices along the path are registered in path.visited
+     * @param startId
+     * @param targetId
+     * @param delta     the width of the buckets of vertices whose edges are relaxed in parallel
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a vertex in the graph
+     *                          or no path can be found from start to target
+     */
+    public DirectedGraph<V,E>.DGPath deltaSteppingShortestPath(String startId, String targetId, double delta) {
+        int start = indexOf(startId);
+        int target = indexOf(targetId);
+        if (start < 0 || target < 0) return null;
+        DeltaStepping<V,E> search = new DeltaStepping<>(this, delta);
+        double[] pathWeights = search.search(start);
+        if (pathWeights[target] == Double.POSITIVE_INFINITY) return null;
+
+        Deque<Integer> pathIndices = new ArrayDeque<>();
+        for (int v = target; v >= 0; v = search.parentOf(v)) {
+            pathIndices.addFirst(v);
+        }
+        return this.buildPath(pathIndices.stream().mapToInt(Integer::intValue).toArray(), pathWeights[target]);
+    }
+
+    /**
+     * runs dijkstra's algorithm from start until target has been settled
+     * @param target    the target vertex, or -1 to settle all vertices that can be reached from start
+     * @return  whether the target has been settled
+     */
+    boolean dijkstraSearch(SearchState state, int start, int target) {
+        return this.dijkstraSearch(state, start, target, false);
+    }
+
+    /**
+     * runs dijkstra's algorithm from start until target has been settled
+     * @param target    the target vertex, or -1 to settle all vertices that can be reached from start
+     * @param reverse   whether to search backward along the incoming edges
+     * @return  whether the target has been settled
+     */
+    boolean dijkstraSearch(SearchState state, int start, int target, boolean reverse) {
+        return this.dijkstraSearch(state, start, target, 0, reverse, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * runs dijkstra's algorithm from start until all target vertices that have been marked in the state are settled
+     * @param numTargets    the number of marked target vertices
+     * @return  whether all targets have been settled
+     */
+    boolean dijkstraSearchTargets(SearchState state, int start, int numTargets) {
+        if (numTargets == 0) return true;
+        return this.dijkstraSearch(state, start, -1, numTargets, false, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * runs dijkstra's algorithm from start until the next vertex would exceed the budget
+     * only the vertices with a shortest path within the budget are being settled
+     * @param budget    the maximum weight of the shortest paths to be settled
+     */
+    void dijkstraSearch(SearchState state, int start, double budget) {
+        this.dijkstraSearch(state, start, -1, 0, false, budget);
+    }
+
+    private boolean dijkstraSearch(SearchState state, int start, int target,
+                                   int numTargets, boolean reverse, double budget) {
+        int[] offsets = (reverse ? this.reverseOffsets : this.offsets);
+        int[] targets = (reverse ? this.reverseSources : this.targets);
+        double[] weights = (reverse ? this.reverseWeights : this.weights);
+        IntMinHeap heap = state.heap;
+        state.reach(start);
+        state.weights[start] = 0.0;
+        heap.offerOrDecrease(start, 0.0);
+        int numSettledTargets = 0;
+
+        while (!heap.isEmpty() && heap.peekKey() <= budget) {
+            int v = heap.poll();
+            state.settle(v);
+            if (v == target) return true;
+            if (numTargets > 0 && state.isTarget(v) && ++numSettledTargets == numTargets) return true;
+
+            double weight = state.weights[v];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                state.reach(w);
+                if (!state.isSettled(w) && weight + weights[i] < state.weights[w]) {
+                    state.weights[w] = weight + weights[i];
+                    state.parents[w] = v;
+                    heap.offerOrDecrease(w, state.weights[w]);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * finds the k shortest loopless paths from start to target by Yen's algorithm,
+     * with the spur searches of each path running in parallel
+     * @param startId
+     * @param targetId
+     * @param k         the maximum number of paths
+     * @return  at most k paths in order of increasing weight, with the vertices of each path as visited
+     *          returns an empty list if either start or target cannot be matched with a vertex in the graph
+     *                                  or no path can be found from start to target
+     */
+    public List<DirectedGraph<V,E>.DGPath> kShortestPaths(String startId, String targetId, int k) {
+        int start = indexOf(startId);
+        int target = indexOf(targetId);
+        if (start < 0 || target < 0) return new ArrayList<>();
+        return new KShortestPaths<>(this, target).search(start, k);
+    }
+
+    /**
+     * finds all vertices that can be reached from start by a path with a weight within the budget
+     * @param startId
+     * @param budget    the maximum weight of the paths
+     * @return  the weight of the shortest path towards each reachable vertex, in order of increasing weight
+     *          returns an empty map if start cannot be matched with a vertex in the graph
+     */
+    public Map<V,Double> reachableWithin(String startId, double budget) {
+        int start = indexOf(startId);
+        if (start < 0) return new LinkedHashMap<>();
+        SearchState state = this.acquireState();
+        try {
+            this.dijkstraSearch(state, start, budget);
+            return this.collectSettled(state);
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    /**
+     * finds the vertices that can be reached within the budget from each of the starts,
+     * running one bounded dijkstra search per start in parallel on the common ForkJoinPool
+     * with the search states being reused from the pool
+     * @param startIds
+     * @param budget    the maximum weight of the paths
+     * @return  per start, at the same position, the weight of the shortest path towards each reachable vertex
+     */
+    public List<Map<V,Double>> reachableWithin(List<String> startIds, double budget) {
+        List<Map<V,Double>> result = new ArrayList<>(startIds.size());
+        for (int s = 0; s < startIds.size(); s++) {
+            result.add(null);
+        }
+        IntStream.range(0, startIds.size()).parallel()
+                .forEach(s -> result.set(s, this.reachableWithin(startIds.get(s), budget)));
+        return result;
+    }
+
+    // the settled vertices with their weights, in order of increasing weight
+    private Map<V,Double> collectSettled(SearchState state) {
+        List<Integer> settled = new ArrayList<>(state.numTouched);
+        for (int i = 0; i < state.numTouched; i++) {
+            if (state.isSettled(state.touched[i])) settled.add(state.touched[i]);
+        }
+        settled.sort(Comparator.comparingDouble(v -> state.weights[v]));
+        Map<V,Double> result = new LinkedHashMap<>();
+        for (int v : settled) {
+            result.put(vertices.get(v), state.weights[v]);
+        }
+        return result;
+    }
+
+    /**
+     * calculates the weights of the shortest paths from every source to every target
+     * @param sourceIds
+     * @param targetIds
+     * @return  a dense matrix with the weight of the shortest path from sourceIds[s] to targetIds[t] at [s][t],
+     *          infinity if no such path exists or either id cannot be matched with a vertex in the graph
+     */
+    public double[][] distanceMatrix(List<String> sourceIds, List<String> targetIds) {
+        return this.distanceMatrix(sourceIds.stream().mapToInt(this::indexOf).toArray(),
+                targetIds.stream().mapToInt(this::indexOf).toArray(), false).getDistances();
+    }
+
+    /**
+     * calculates the weights of the shortest paths from every source to every target,
+     * running one dijkstra search per source in parallel on the common ForkJoinPool.
+     * each search stops as soon as all targets have been settled
+     * @param sources       vertex indices of the sources, -1 for an unknown source
+     * @param targets       vertex indices of the targets, -1 for an unknown target
+     * @param keepPaths     whether the search trees towards the targets should be kept for path reconstruction
+     * @return
+     */
+    DistanceMatrix<V,E> distanceMatrix(int[] sources, int[] targets, boolean keepPaths) {
+        double[][] distances = new double[sources.length][targets.length];
+        int[][] treeVertices = (keepPaths ? new int[sources.length][] : null);
+        int[][] treeParents = (keepPaths ? new int[sources.length][] : null);
+        IntStream.range(0, sources.length).parallel().forEach(s -> {
+            if (sources[s] < 0) {
+                Arrays.fill(distances[s], Double.POSITIVE_INFINITY);
+                return;
+            }
+            SearchState state = this.acquireState();
+            try {
+                this.dijkstraSearchTargets(state, sources[s], this.markTargets(state, targets));
+                for (int t = 0; t < targets.length; t++) {
+                    distances[s][t] = (targets[t] >= 0 && state.isSettled(targets[t]) ?
+                            state.weights[targets[t]] : Double.POSITIVE_INFINITY);
+                }
+                if (keepPaths) {
+                    this.extractTree(state, targets, s, treeVertices, treeParents);
+                }
+            } finally {
+                this.releaseState(state);
+            }
+        });
+        return new DistanceMatrix<>(this, graph, targets, distances, treeVertices, treeParents);
+    }
+
+    // marks the known targets in the state, and returns the number of distinct targets
+    private int markTargets(SearchState state, int[] targets) {
+        int numTargets = 0;
+        for (int target : targets) {
+            if (target >= 0 && state.markTarget(target)) numTargets++;
+        }
+        return numTargets;
+    }
+
+    /**
+     * calculates the shortest paths from start to each of the targets by a single dijkstra search,
+     * which stops as soon as all targets have been settled
+     * @param startId
+     * @param targetIds
+     * @return  per target, at the same position, the shortest path from start with the vertices of the path as visited
+     *          or null if no path exists, or either start or target cannot be matched with a vertex in the graph
+     */
+    public List<DirectedGraph<V,E>.DGPath> shortestPaths(String startId, List<String> targetIds) {
+        List<DirectedGraph<V,E>.DGPath> paths = new ArrayList<>(targetIds.size());
+        int start = indexOf(startId);
+        int[] targets = targetIds.stream().mapToInt(this::indexOf).toArray();
+        if (start < 0) {
+            for (int t = 0; t < targets.length; t++) {
+                paths.add(null);
+            }
+            return paths;
+        }
+
+        SearchState state = this.acquireState();
+        try {
+            this.dijkstraSearchTargets(state, start, this.markTargets(state, targets));
+            for (int target : targets) {
+                if (target < 0 || !state.isSettled(target)) {
+                    paths.add(null);
+                    continue;
+                }
+                Deque<V> pathVertices = new ArrayDeque<>();
+                for (int v = target; v >= 0; v = state.parents[v]) {
+                    pathVertices.addFirst(vertices.get(v));
+                }
+                paths.add(graph.createPath(pathVertices, state.weights[target], pathVertices));
+            }
+            return paths;
+        } finally {
+            this.releaseState(state);
+        }
+    }
+
+    /**
+     * extracts the union of the shortest paths towards the reached targets from the search tree
+     * as arrays of vertices sorted by index, with their parents at the same positions
+     */
+    private void extractTree(SearchState state, int[] targets, int s, int[][] treeVertices, int[][] treeParents) {
+        SortedMap<Integer,Integer> tree = new TreeMap<>();
+        for (int target : targets) {
+            if (target < 0 || !state.isSettled(target)) continue;
+            for (int v = target; v >= 0 && !tree.containsKey(v); v = state.parents[v]) {
+                tree.put(v, state.parents[v]);
+            }
+        }
+        treeVertices[s] = tree.keySet().stream().mapToInt(Integer::intValue).toArray();
+        treeParents[s] = tree.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * builds the path along the given vertices, which are also registered as visited
+     */
+    DirectedGraph<V,E>.DGPath buildPath(int[] pathIndices, double totalWeight) {
+        Deque<V> pathVertices = new ArrayDeque<>();
+        for (int v : pathIndices) {
+            pathVertices.addLast(vertices.get(v));
+        }
+        return graph.createPath(pathVertices, totalWeight, pathVertices);
+    }
+
+    /**
+     * @return  the position of the edge from 'from' to 'to' in targets and weights, or -1 if no such edge exists
+     */
+    int edgeIndex(int from, int to) {
+        for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+            if (targets[i] == to) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * builds the path along the parents in the search tree from the origin of the search to target
+     * and registers all vertices reached by the search in path.visited, if collectVisited is set
+     */
+    DirectedGraph<V,E>.DGPath buildPath(SearchState state, int target, double totalWeight, boolean collectVisited) {
+        Deque<V> pathVertices = new ArrayDeque<>();
+        for (int v = target; v >= 0; v = state.parents[v]) {
+            pathVertices.addFirst(vertices.get(v));
+        }
+        List<V> visited = new ArrayList<>(collectVisited ? state.numTouched : 0);
+        for (int i = 0; collectVisited && i < state.numTouched; i++) {
+            visited.add(vertices.get(state.touched[i]));
+        }
+        return graph.createPath(pathVertices, totalWeight, visited);
+    }
+}
@@ -0,0 +1,10 @@
+package graphs;
+
+/**
+ * a vertex which keeps the dense index that has been assigned to it by the DirectedGraph it belongs to
+ * such that algorithms can store data about the vertex in arrays instead of hash maps
+ */
+public interface Indexed extends Identifiable {
+    int getIndex();
+    void setIndex(int index);
+}
@@ -0,0 +1,114 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * indexed binary min-heap of vertex indices 0 <= v < capacity, ordered by a double key per vertex
+ * supports decrease-key, such that every vertex occurs at most once in the heap.
+ * the heap is meant to be reused across searches: clear() only resets the vertices that are still queued
+ */
+class IntMinHeap {
+    private final int[] heap;           // heap[i] = vertex at heap position i
+    private final int[] positions;      // positions[v] = position of v in heap, or -1 if v is not queued
+    private final double[] keys;        // keys[v] = current key of v, only valid while v is queued
+    private int size = 0;
+
+    IntMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int v) {
+        return positions[v] >= 0;
+    }
+
+    // precondition: !isEmpty()
+    int peek() {
+        return heap[0];
+    }
+
+    // precondition: !isEmpty()
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * adds v with the given key, or lowers the key of v if it is queued already with a higher key
+     * @return  whether v has been added or its key has been lowered
+     */
+    boolean offerOrDecrease(int v, double key) {
+        int position = positions[v];
+        if (position < 0) {
+            keys[v] = key;
+            heap[size] = v;
+            positions[v] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key < keys[v]) {
+            keys[v] = key;
+            siftUp(position);
+            return true;
+        }
+        return false;
+    }
+
+    // precondition: !isEmpty()
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int v = heap[position];
+        double key = keys[v];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[heap[parent]] <= key) break;
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = v;
+        positions[v] = position;
+    }
+
+    private void siftDown(int position) {
+        int v = heap[position];
+        double key = keys[v];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+            if (key <= keys[heap[child]]) break;
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = v;
+        positions[v] = position;
+    }
+}
@@ -0,0 +1,202 @@
+package graphs;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * finds the k shortest loopless paths between two vertices of a FrozenGraph by Yen's algorithm:
+ * each next path deviates from one of the paths found before at a spur vertex, after having followed
+ * the root of that path up to the spur vertex. The spur path from there to the target must avoid
+ * the vertices of the root and the edges by which any of the paths found sofar leave the same root.
+ *
+ * The spur searches of one path run in parallel, and reuse the shortest path tree towards the target:
+ *  -   if the tree path from the spur vertex avoids all banned vertices and edges, no search is needed at all
+ *  -   otherwise the weights towards the target in the full graph are an admissible heuristic for an A* search,
+ *      because banning vertices and edges can only make paths longer
+ * Only the spur vertices from the deviation of the previous path onwards are considered (Lawler's improvement),
+ * the earlier ones would reproduce candidates that have been found already.
+ */
+class KShortestPaths<V extends Identifiable, E> {
+
+    private final FrozenGraph<V,E> graph;
+    private final int target;
+    private final double[] weightsToTarget;     // weight of the shortest path from each vertex to target in the full graph
+    private final int[] nextToTarget;           // next vertex on that shortest path, -1 at target or if no path exists
+
+    // a candidate path, ordered by weight
+    private static class Route implements Comparable<Route> {
+        private final int[] vertices;
+        private final double weight;
+        private final int deviation;            // the position of the spur vertex at which the path deviates
+
+        private Route(int[] vertices, double weight, int deviation) {
+            this.vertices = vertices;
+            this.weight = weight;
+            this.deviation = deviation;
+        }
+
+        @Override
+        public int compareTo(Route other) {
+            int result = Double.compare(weight, other.weight);
+            if (result == 0) result = Integer.compare(vertices.length, other.vertices.length);
+            if (result == 0) result = Arrays.compare(vertices, other.vertices);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(vertices, ((Route) o).vertices);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(vertices);
+        }
+    }
+
+    KShortestPaths(FrozenGraph<V,E> graph, int target) {
+        this.graph = graph;
+        this.target = target;
+        int numVertices = graph.getNumVertices();
+        this.weightsToTarget = new double[numVertices];
+        this.nextToTarget = new int[numVertices];
+
+        // the backward search from target provides the shortest path tree towards target
+        SearchState state = graph.acquireState();
+        try {
+            graph.dijkstraSearch(state, target, -1, true);
+            for (int v = 0; v < numVertices; v++) {
+                this.weightsToTarget[v] = state.weightOf(v);
+                this.nextToTarget[v] = (state.isReached(v) ? state.parents[v] : -1);
+            }
+        } finally {
+            graph.releaseState(state);
+        }
+    }
+
+    /**
+     * @param start
+     * @param k
+     * @return  at most k loopless paths from start to target in order of increasing weight,
+     *          with the vertices of each path as visited
+     */
+    List<DirectedGraph<V,E>.DGPath> search(int start, int k) {
+        List<Route> found = new ArrayList<>();
+        if (k <= 0 || weightsToTarget[start] == Double.POSITIVE_INFINITY) return new ArrayList<>();
+
+        Route shortest = this.treeRoute(new int[0], start, 0.0, 0);
+        PriorityQueue<Route> candidates = new PriorityQueue<>();
+        Set<Route> known = new HashSet<>();
+        candidates.offer(shortest);
+        known.add(shortest);
+
+        while (found.size() < k && !candidates.isEmpty()) {
+            Route previous = candidates.poll();
+            found.add(previous);
+            if (found.size() == k) break;
+
+            double[] rootWeights = new double[previous.vertices.length];
+            for (int j = 1; j < previous.vertices.length; j++) {
+                rootWeights[j] = rootWeights[j - 1] +
+                        graph.weights[graph.edgeIndex(previous.vertices[j - 1], previous.vertices[j])];
+            }
+            List<Route> spurRoutes = IntStream.range(previous.deviation, previous.vertices.length - 1).parallel()
+                    .mapToObj(j -> this.spurRoute(previous, j, rootWeights[j], found))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            for (Route route : spurRoutes) {
+                if (known.add(route)) candidates.offer(route);
+            }
+        }
+
+        return found.stream()
+                .map(route -> graph.buildPath(route.vertices, route.weight))
+                .collect(Collectors.toList());
+    }
+
+    // finds the shortest path from the spur vertex at position j of the previous path,
+    // which avoids the root and deviates from all paths found sofar that share the same root
+    private Route spurRoute(Route previous, int j, double rootWeight, List<Route> found) {
+        int[] root = Arrays.copyOf(previous.vertices, j);
+        int spur = previous.vertices[j];
+
+        boolean[] isBanned = new boolean[graph.getNumVertices()];
+        for (int v : root) {
+            isBanned[v] = true;
+        }
+        List<Integer> bannedEdges = new ArrayList<>();
+        for (Route route : found) {
+            if (route.vertices.length > j + 1 &&
+                    Arrays.equals(route.vertices, 0, j + 1, previous.vertices, 0, j + 1)) {
+                bannedEdges.add(graph.edgeIndex(spur, route.vertices[j + 1]));
+            }
+        }
+
+        // the tree path from spur can be reused if it does not touch anything that has been banned
+        if (nextToTarget[spur] >= 0 && !bannedEdges.contains(graph.edgeIndex(spur, nextToTarget[spur]))) {
+            boolean isFree = true;
+            for (int v = nextToTarget[spur]; v >= 0 && isFree; v = nextToTarget[v]) {
+                isFree = !isBanned[v];
+            }
+            if (isFree) return this.treeRoute(root, spur, rootWeight, j);
+        }
+
+        // otherwise search around the banned vertices and edges by A*
+        SearchState state = graph.acquireState();
+        try {
+            IntMinHeap heap = state.heap;
+            state.reach(spur);
+            state.weights[spur] = 0.0;
+            heap.offerOrDecrease(spur, weightsToTarget[spur]);
+            while (!heap.isEmpty()) {
+                int v = heap.poll();
+                state.settle(v);
+                if (v == target) break;
+
+                double weight = state.weights[v];
+                for (int i = graph.offsets[v]; i < graph.offsets[v + 1]; i++) {
+                    int w = graph.targets[i];
+                    // vertices that cannot reach target in the full graph cannot reach it now either
+                    if (isBanned[w] || weightsToTarget[w] == Double.POSITIVE_INFINITY) continue;
+                    if (v == spur && bannedEdges.contains(i)) continue;
+                    state.reach(w);
+                    if (!state.isSettled(w) && weight + graph.weights[i] < state.weights[w]) {
+                        state.weights[w] = weight + graph.weights[i];
+                        state.parents[w] = v;
+                        heap.offerOrDecrease(w, state.weights[w] + weightsToTarget[w]);
+                    }
+                }
+            }
+            if (!state.isSettled(target)) return null;
+
+            Deque<Integer> spurPath = new ArrayDeque<>();
+            for (int v = target; v >= 0; v = state.parents[v]) {
+                spurPath.addFirst(v);
+            }
+            int[] vertices = Arrays.copyOf(root, root.length + spurPath.size());
+            int position = root.length;
+            for (int v : spurPath) {
+                vertices[position++] = v;
+            }
+            return new Route(vertices, rootWeight + state.weights[target], j);
+        } finally {
+            graph.releaseState(state);
+        }
+    }
+
+    // follows the shortest path tree from spur to target after the root
+    private Route treeRoute(int[] root, int spur, double rootWeight, int deviation) {
+        List<Integer> vertices = new ArrayList<>();
+        for (int v : root) {
+            vertices.add(v);
+        }
+        for (int v = spur; v >= 0; v = nextToTarget[v]) {
+            vertices.add(v);
+        }
+        return new Route(vertices.stream().mapToInt(Integer::intValue).toArray(),
+                rootWeight + weightsToTarget[spur], deviation);
+    }
+}
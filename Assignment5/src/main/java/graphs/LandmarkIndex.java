@@ -0,0 +1,165 @@
+package graphs;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Precalculated shortest path weights between a small set of landmark vertices and all vertices of a graph.
+ * By the triangle inequality these provide lower bounds for the A*, Landmarks and Triangle inequality (ALT) search:
+ *      for any landmark L and vertices v, t:   d(v,t) >= d(L,t) - d(L,v)   and   d(v,t) >= d(v,L) - d(t,L)
+ * Unlike a geometric estimate, these bounds follow the actual edge weights, such as travel times.
+ *
+ * The bounds remain valid when edge weights increase after the index has been built (e.g. a reduced speed limit),
+ * only then they become less tight. They are not valid anymore when edge weights decrease.
+ *
+ * The index refers to vertices by their id, such that it can be saved and loaded again for the same graph.
+ */
+public class LandmarkIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] vertexIds;
+    private final String[] landmarkIds;
+    private final double[][] weightsFrom;       // weightsFrom[l][v] = weight of the shortest path from landmark l to vertex v
+    private final double[][] weightsTo;         // weightsTo[l][v] = weight of the shortest path from vertex v to landmark l
+    private transient Map<String,Integer> indices;
+
+    private LandmarkIndex(String[] vertexIds, String[] landmarkIds, double[][] weightsFrom, double[][] weightsTo) {
+        this.vertexIds = vertexIds;
+        this.landmarkIds = landmarkIds;
+        this.weightsFrom = weightsFrom;
+        this.weightsTo = weightsTo;
+        this.buildIndices();
+    }
+
+    private void buildIndices() {
+        this.indices = new HashMap<>();
+        for (int v = 0; v < vertexIds.length; v++) {
+            this.indices.put(vertexIds[v], v);
+        }
+    }
+
+    /**
+     * selects landmarks in the graph by the farthest-first strategy:
+     * each next landmark is the vertex with the heaviest shortest path from its nearest landmark sofar
+     * (vertices which cannot be reached from any landmark sofar are preferred, such that all components get a landmark)
+     * The weights from the landmarks are obtained from the selection,
+     * the weights towards the landmarks are calculated in parallel afterwards.
+     * @param graph
+     * @param weightMapper      provides a function, by which the weight of an edge can be retrieved or calculated
+     * @param numLandmarks      the number of landmarks to be selected
+     * @return
+     */
+    public static <V extends Identifiable, E> LandmarkIndex build(DirectedGraph<V,E> graph,
+                                                                 ToDoubleFunction<E> weightMapper,
+                                                                 int numLandmarks) {
+        FrozenGraph<V,E> frozen = graph.freeze(weightMapper);
+        int numVertices = frozen.getNumVertices();
+        numLandmarks = Math.min(numLandmarks, numVertices);
+
+        int[] landmarks = new int[numLandmarks];
+        boolean[] isLandmark = new boolean[numVertices];
+        double[][] weightsFrom = new double[numLandmarks][];
+        double[] nearestWeights = new double[numVertices];
+        Arrays.fill(nearestWeights, Double.POSITIVE_INFINITY);
+        // the first landmark is the vertex farthest away from an arbitrary vertex
+        double[] seedWeights = (numVertices > 0 ? frozen.shortestPathWeights(0, false) : nearestWeights);
+        for (int l = 0; l < numLandmarks; l++) {
+            double[] selectionWeights = (l == 0 ? seedWeights : nearestWeights);
+            int landmark = -1;
+            for (int v = 0; v < numVertices; v++) {
+                if (isLandmark[v]) continue;
+                if (landmark < 0 || selectionWeights[v] > selectionWeights[landmark]) landmark = v;
+            }
+            landmarks[l] = landmark;
+            isLandmark[landmark] = true;
+            weightsFrom[l] = frozen.shortestPathWeights(landmark, false);
+            for (int v = 0; v < numVertices; v++) {
+                nearestWeights[v] = Math.min(nearestWeights[v], weightsFrom[l][v]);
+            }
+        }
+
+        double[][] weightsTo = new double[numLandmarks][];
+        IntStream.range(0, numLandmarks).parallel()
+                .forEach(l -> weightsTo[l] = frozen.shortestPathWeights(landmarks[l], true));
+
+        String[] vertexIds = new String[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            vertexIds[v] = frozen.getVertex(v).getId();
+        }
+        String[] landmarkIds = new String[numLandmarks];
+        for (int l = 0; l < numLandmarks; l++) {
+            landmarkIds[l] = vertexIds[landmarks[l]];
+        }
+        return new LandmarkIndex(vertexIds, landmarkIds, weightsFrom, weightsTo);
+    }
+
+    /**
+     * @return  the ids of the selected landmarks
+     */
+    public List<String> getLandmarkIds() {
+        return List.of(landmarkIds);
+    }
+
+    /**
+     * calculates the best lower bound from all landmarks for the weight of any path from vertex to target
+     * @param vertex
+     * @param target
+     * @return  the lower bound, 0.0 if either vertex is not known in the index,
+     *          infinity if the landmarks prove that target cannot be reached from vertex
+     */
+    public double lowerBound(Identifiable vertex, Identifiable target) {
+        Integer v = indices.get(vertex.getId());
+        Integer t = indices.get(target.getId());
+        if (v == null || t == null) return 0.0;
+
+        double bound = 0.0;
+        for (int l = 0; l < landmarkIds.length; l++) {
+            double fromV = weightsFrom[l][v], fromT = weightsFrom[l][t];
+            if (fromV < Double.POSITIVE_INFINITY) {
+                // if the landmark reaches vertex but not target, then vertex cannot reach target either
+                if (fromT == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, fromT - fromV);
+            }
+            double toV = weightsTo[l][v], toT = weightsTo[l][t];
+            if (toT < Double.POSITIVE_INFINITY) {
+                // if target reaches the landmark but vertex does not, then vertex cannot reach target either
+                if (toV == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, toV - toT);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * writes the index to the output stream, from which it can be loaded again
+     * @param outputStream
+     * @throws IOException
+     */
+    public void save(OutputStream outputStream) throws IOException {
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(outputStream));
+        objectOutputStream.writeObject(this);
+        objectOutputStream.flush();
+    }
+
+    /**
+     * reads an index that has been saved before
+     * @param inputStream
+     * @return
+     * @throws IOException  also if the stream does not hold a landmark index
+     */
+    public static LandmarkIndex load(InputStream inputStream) throws IOException {
+        ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(inputStream));
+        try {
+            return (LandmarkIndex) objectInputStream.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("No landmark index found in stream", e);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.buildIndices();
+    }
+}
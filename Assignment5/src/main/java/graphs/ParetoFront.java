@@ -0,0 +1,64 @@
+package graphs;
+
+import java.util.List;
+
+/**
+ * the Pareto front of the paths between two vertices on two criteria: no path of the front is improved upon
+ * in both criteria by any other path. The paths are ordered by increasing first weight, and therefore
+ * by decreasing second weight; each path carries its first weight as totalWeight.
+ */
+public class ParetoFront<V extends Identifiable, E> {
+
+    private final List<DirectedGraph<V,E>.DGPath> paths;
+    private final double[] firstWeights;
+    private final double[] secondWeights;
+    private final boolean complete;
+
+    ParetoFront(List<DirectedGraph<V,E>.DGPath> paths, double[] firstWeights, double[] secondWeights,
+                boolean complete) {
+        this.paths = paths;
+        this.firstWeights = firstWeights;
+        this.secondWeights = secondWeights;
+        this.complete = complete;
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public List<DirectedGraph<V,E>.DGPath> getPaths() {
+        return paths;
+    }
+
+    public DirectedGraph<V,E>.DGPath getPath(int i) {
+        return paths.get(i);
+    }
+
+    public double getFirstWeight(int i) {
+        return firstWeights[i];
+    }
+
+    public double getSecondWeight(int i) {
+        return secondWeights[i];
+    }
+
+    /**
+     * @return  false if the bound on the number of labels per vertex has discarded any label,
+     *          in which case the front may miss some of the Pareto optimal paths,
+     *          and its paths may be improved upon by such a missing path.
+     *          the paths in the front never improve upon each other in both criteria either way
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Pareto front of %d paths%s:",
+                paths.size(), complete ? "" : " (bounded)"));
+        for (int i = 0; i < paths.size(); i++) {
+            sb.append(String.format("\n  (%f, %f) %s", firstWeights[i], secondWeights[i], paths.get(i)));
+        }
+        return sb.toString();
+    }
+}
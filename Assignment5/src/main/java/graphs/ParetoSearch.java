@@ -0,0 +1,215 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * bi-criteria label-setting search (Martins' algorithm) for the Pareto front of the paths between two vertices.
+ * A label is a path from start to a vertex with its two weights; the labels are stored in primitive arrays
+ * by their id, with the id of the label of the preceding vertex as parent.
+ *
+ * Labels are taken from the queue in lexicographic order of (first weight + lower bound towards target, second weight).
+ * All labels of a vertex share the same lower bound, so each new label of a vertex has no lower first weight than
+ * the labels of that vertex that were settled before. Hence it is dominated if and only if its second weight is
+ * not lower than the lowest second weight sofar at that vertex, which makes the dominance check a single comparison.
+ * The same holds for new labels upon relaxation, because the lower bounds are consistent.
+ *
+ * Labels are pruned when
+ *  -   they are dominated at their vertex, as above
+ *  -   their weights plus the lower bounds towards target are dominated by a path that has reached target already
+ *  -   their vertex has settled maxLabelsPerVertex labels already (this bounds the work, at the risk of missing paths)
+ * The lower bounds per criterion are the weights of the shortest paths towards target by reverse dijkstra searches.
+ */
+class ParetoSearch<V extends Identifiable, E> {
+
+    private final FrozenGraph<V,E> first;           // the snapshot with the weights of the first criterion
+    private final double[] secondWeights;           // the weights of the second criterion, in the same edge order
+    private final int maxLabelsPerVertex;
+
+    // the labels by their id
+    private int numLabels = 0;
+    private double[] labelFirst = new double[64];
+    private double[] labelSecond = new double[64];
+    private int[] labelVertices = new int[64];
+    private int[] labelParents = new int[64];
+
+    // binary min-heap of label ids
+    private int[] heap = new int[64];
+    private double[] heapKeys = new double[64];
+    private int heapSize = 0;
+
+    ParetoSearch(FrozenGraph<V,E> first, FrozenGraph<V,E> second, int maxLabelsPerVertex) {
+        this.first = first;
+        this.secondWeights = second.weights;
+        this.maxLabelsPerVertex = maxLabelsPerVertex;
+    }
+
+    ParetoFront<V,E> search(int start, int target) {
+        int numVertices = first.getNumVertices();
+        double[] firstBounds = this.lowerBounds(first.weights, target);
+        double[] secondBounds = this.lowerBounds(secondWeights, target);
+
+        double[] bestSecond = new double[numVertices];      // lowest second weight of the settled labels per vertex
+        int[] numSettled = new int[numVertices];
+        Arrays.fill(bestSecond, Double.POSITIVE_INFINITY);
+        List<Integer> front = new ArrayList<>();            // settled labels of target, by increasing first weight
+        boolean complete = true;
+
+        if (firstBounds[start] < Double.POSITIVE_INFINITY) {
+            this.offer(this.addLabel(start, 0.0, 0.0, -1), firstBounds[start]);
+        }
+        while (heapSize > 0) {
+            int label = this.poll();
+            int v = labelVertices[label];
+            double labelSecondWeight = labelSecond[label];
+            if (labelSecondWeight >= bestSecond[v]) continue;
+            if (this.isDominated(front, labelFirst[label] + firstBounds[v], labelSecondWeight + secondBounds[v])) {
+                continue;
+            }
+            if (numSettled[v] == maxLabelsPerVertex) {
+                complete = false;
+                continue;
+            }
+            bestSecond[v] = labelSecondWeight;
+            numSettled[v]++;
+            if (v == target) {
+                front.add(label);
+                continue;
+            }
+
+            for (int i = first.offsets[v]; i < first.offsets[v + 1]; i++) {
+                int w = first.targets[i];
+                double wFirst = labelFirst[label] + first.weights[i];
+                double wSecond = labelSecondWeight + secondWeights[i];
+                // the settled labels of w have no higher first weight, so this label is dominated by them
+                if (wSecond >= bestSecond[w] || firstBounds[w] == Double.POSITIVE_INFINITY) continue;
+                if (this.isDominated(front, wFirst + firstBounds[w], wSecond + secondBounds[w])) continue;
+                this.offer(this.addLabel(w, wFirst, wSecond, label), wFirst + firstBounds[w]);
+            }
+        }
+
+        List<DirectedGraph<V,E>.DGPath> paths = new ArrayList<>();
+        double[] frontFirst = new double[front.size()];
+        double[] frontSecond = new double[front.size()];
+        for (int f = 0; f < front.size(); f++) {
+            int label = front.get(f);
+            frontFirst[f] = labelFirst[label];
+            frontSecond[f] = labelSecond[label];
+            int length = 0;
+            for (int l = label; l >= 0; l = labelParents[l]) length++;
+            int[] pathIndices = new int[length];
+            for (int l = label; l >= 0; l = labelParents[l]) pathIndices[--length] = labelVertices[l];
+            paths.add(first.buildPath(pathIndices, frontFirst[f]));
+        }
+        return new ParetoFront<>(paths, frontFirst, frontSecond, complete);
+    }
+
+    // whether a path of target with no higher weights exists in the front,
+    // which is sorted by increasing first weight and hence by decreasing second weight
+    private boolean isDominated(List<Integer> front, double firstWeight, double secondWeight) {
+        // the last label with a first weight within firstWeight has the lowest second weight of those
+        for (int f = front.size() - 1; f >= 0; f--) {
+            int label = front.get(f);
+            if (labelFirst[label] <= firstWeight) return labelSecond[label] <= secondWeight;
+        }
+        return false;
+    }
+
+    // the weights of the shortest paths from every vertex towards target
+    private double[] lowerBounds(double[] weights, int target) {
+        int numVertices = first.getNumVertices();
+        double[] bounds = new double[numVertices];
+        Arrays.fill(bounds, Double.POSITIVE_INFINITY);
+        IntMinHeap boundsHeap = new IntMinHeap(numVertices);
+        bounds[target] = 0.0;
+        boundsHeap.offerOrDecrease(target, 0.0);
+        // the edge positions of the reverse rows of the snapshot, to find the weights of this criterion
+        int[] edgePositions = this.reverseEdgePositions();
+        while (!boundsHeap.isEmpty()) {
+            int v = boundsHeap.poll();
+            for (int j = first.reverseOffsets[v]; j < first.reverseOffsets[v + 1]; j++) {
+                int u = first.reverseSources[j];
+                double bound = bounds[v] + weights[edgePositions[j]];
+                if (bound < bounds[u]) {
+                    bounds[u] = bound;
+                    boundsHeap.offerOrDecrease(u, bound);
+                }
+            }
+        }
+        return bounds;
+    }
+
+    // maps each position in the reverse rows onto the position of the same edge in the forward rows
+    private int[] reverseEdgePositions() {
+        int[] positions = new int[first.reverseSources.length];
+        int[] next = Arrays.copyOf(first.reverseOffsets, first.getNumVertices());
+        for (int v = 0; v < first.getNumVertices(); v++) {
+            for (int i = first.offsets[v]; i < first.offsets[v + 1]; i++) {
+                positions[next[first.targets[i]]++] = i;
+            }
+        }
+        return positions;
+    }
+
+    private int addLabel(int v, double firstWeight, double secondWeight, int parent) {
+        if (numLabels == labelVertices.length) {
+            int capacity = 2 * numLabels;
+            labelFirst = Arrays.copyOf(labelFirst, capacity);
+            labelSecond = Arrays.copyOf(labelSecond, capacity);
+            labelVertices = Arrays.copyOf(labelVertices, capacity);
+            labelParents = Arrays.copyOf(labelParents, capacity);
+        }
+        labelFirst[numLabels] = firstWeight;
+        labelSecond[numLabels] = secondWeight;
+        labelVertices[numLabels] = v;
+        labelParents[numLabels] = parent;
+        return numLabels++;
+    }
+
+    // lexicographic order on (key, second weight)
+    private boolean isLess(int position1, int position2) {
+        if (heapKeys[position1] != heapKeys[position2]) return heapKeys[position1] < heapKeys[position2];
+        return labelSecond[heap[position1]] < labelSecond[heap[position2]];
+    }
+
+    private void swap(int position1, int position2) {
+        int label = heap[position1];
+        heap[position1] = heap[position2];
+        heap[position2] = label;
+        double key = heapKeys[position1];
+        heapKeys[position1] = heapKeys[position2];
+        heapKeys[position2] = key;
+    }
+
+    private void offer(int label, double key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heapSize);
+            heapKeys = Arrays.copyOf(heapKeys, 2 * heapSize);
+        }
+        int position = heapSize++;
+        heap[position] = label;
+        heapKeys[position] = key;
+        while (position > 0 && this.isLess(position, (position - 1) / 2)) {
+            this.swap(position, (position - 1) / 2);
+            position = (position - 1) / 2;
+        }
+    }
+
+    private int poll() {
+        int label = heap[0];
+        heapSize--;
+        heap[0] = heap[heapSize];
+        heapKeys[0] = heapKeys[heapSize];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && this.isLess(child + 1, child)) child++;
+            if (!this.isLess(child, position)) break;
+            this.swap(child, position);
+            position = child;
+        }
+        return label;
+    }
+}
@@ -0,0 +1,78 @@
+package graphs;
+
+/**
+ * counts the work done by a single search on a DirectedGraph:
+ *  settled         the vertices that have been expanded: settled by dijkstra and A*, dequeued by BFS, entered by DFS
+ *  relaxed         the edges that have been examined
+ *  pushes, pops    the operations on the frontier: the priority queue of dijkstra and A*,
+ *                  the fifo queue of BFS or the stack of DFS (pops include lazily deleted entries)
+ *  peakFrontier    the largest size of the frontier during the search
+ *  wallNanos       the elapsed time of the search
+ */
+public class SearchMetrics {
+    private final String algorithm;
+    private final long startTime;
+    long settled = 0;
+    long relaxed = 0;
+    long pushes = 0;
+    long pops = 0;
+    int peakFrontier = 0;
+    private long wallNanos = 0;
+    private boolean found = false;
+
+    SearchMetrics(String algorithm) {
+        this.algorithm = algorithm;
+        this.startTime = System.nanoTime();
+    }
+
+    void push(int frontierSize) {
+        pushes++;
+        peakFrontier = Math.max(peakFrontier, frontierSize);
+    }
+
+    void finish(boolean found) {
+        this.wallNanos = System.nanoTime() - startTime;
+        this.found = found;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public long getSettled() {
+        return settled;
+    }
+
+    public long getRelaxed() {
+        return relaxed;
+    }
+
+    public long getPushes() {
+        return pushes;
+    }
+
+    public long getPops() {
+        return pops;
+    }
+
+    public int getPeakFrontier() {
+        return peakFrontier;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return  whether the search has found a path
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: found=%b settled=%d relaxed=%d pushes=%d pops=%d peakFrontier=%d time=%.3fms",
+                algorithm, found, settled, relaxed, pushes, pops, peakFrontier, wallNanos / 1E6);
+    }
+}
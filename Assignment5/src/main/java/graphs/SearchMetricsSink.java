@@ -0,0 +1,13 @@
+package graphs;
+
+/**
+ * receives the metrics of every search on a DirectedGraph, once the search has completed
+ * searches may run concurrently, so the sink must be thread-safe if the graph is searched from multiple threads
+ */
+@FunctionalInterface
+public interface SearchMetricsSink {
+    /**
+     * @param metrics   the counters and the wall time of a completed search, also of searches that found no path
+     */
+    void record(SearchMetrics metrics);
+}
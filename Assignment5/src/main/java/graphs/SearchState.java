@@ -0,0 +1,93 @@
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * reusable working memory of a single search on a FrozenGraph
+ * vertices are marked with the stamp of the current search, such that
+ * starting a new search does not require clearing any arrays.
+ * a search state must not be shared between threads
+ */
+class SearchState {
+    final double[] weights;         // weight of the shortest path sofar to each reached vertex
+    final int[] parents;            // preceding vertex in the search tree, -1 for the origin of the search
+    final int[] reachedStamps;      // the search in which a vertex has been reached
+    final int[] settledStamps;      // the search in which a vertex has been settled
+    final int[] targetStamps;       // the search in which a vertex has been marked as one of multiple targets
+    final IntMinHeap heap;          // priority queue of dijkstra searches
+    final int[] queue;              // fifo queue of breadth-first searches, or stack of depth-first searches
+    final int[] cursors;            // next edge to be explored from each vertex on the stack of depth-first searches
+    final int[] touched;            // all vertices reached by the current search, in order of being reached
+    int numTouched = 0;
+    private int stamp = 0;
+
+    SearchState(int numVertices) {
+        this.weights = new double[numVertices];
+        this.parents = new int[numVertices];
+        this.reachedStamps = new int[numVertices];
+        this.settledStamps = new int[numVertices];
+        this.targetStamps = new int[numVertices];
+        this.heap = new IntMinHeap(numVertices);
+        this.queue = new int[numVertices];
+        this.cursors = new int[numVertices];
+        this.touched = new int[numVertices];
+    }
+
+    /**
+     * prepares the state for a new search
+     */
+    void reset() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(reachedStamps, 0);
+            Arrays.fill(settledStamps, 0);
+            Arrays.fill(targetStamps, 0);
+            stamp = 0;
+        }
+        stamp++;
+        numTouched = 0;
+        heap.clear();
+    }
+
+    boolean isReached(int v) {
+        return reachedStamps[v] == stamp;
+    }
+
+    boolean isSettled(int v) {
+        return settledStamps[v] == stamp;
+    }
+
+    double weightOf(int v) {
+        return reachedStamps[v] == stamp ? weights[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * registers that v has been reached by the search, if it had not been reached before
+     * @return  whether v has been reached for the first time
+     */
+    boolean reach(int v) {
+        if (reachedStamps[v] == stamp) return false;
+        reachedStamps[v] = stamp;
+        weights[v] = Double.POSITIVE_INFINITY;
+        parents[v] = -1;
+        touched[numTouched++] = v;
+        return true;
+    }
+
+    void settle(int v) {
+        settledStamps[v] = stamp;
+    }
+
+    /**
+     * marks v as one of the targets of the search
+     * @return  whether v has been marked for the first time
+     */
+    boolean markTarget(int v) {
+        if (targetStamps[v] == stamp) return false;
+        targetStamps[v] = stamp;
+        return true;
+    }
+
+    boolean isTarget(int v) {
+        return targetStamps[v] == stamp;
+    }
+}
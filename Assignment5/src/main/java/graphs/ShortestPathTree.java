@@ -0,0 +1,210 @@
+package graphs;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The tree of shortest paths from a single source vertex to all vertices that can be reached in a graph,
+ * which can be repaired incrementally after changes of edge weights, instead of being recalculated.
+ *
+ * The repair follows the dynamic single-source shortest path approach of Ramalingam and Reps:
+ *  -   an edge that gets heavier only matters if it is part of the tree;
+ *      then the subtree below that edge is detached, and each detached vertex is reattached
+ *      via its lightest incoming edge from outside the subtree
+ *  -   an edge that gets lighter only matters if it provides a shorter path to its to-vertex;
+ *      then the improvement is propagated from there
+ * In both cases dijkstra's algorithm continues only across the vertices whose weight actually changes.
+ *
+ * The tree reads the weights of the edges from the graph through the weightMapper;
+ * it must be informed of every edge of which the weight has changed. The tree is not thread-safe.
+ */
+public class ShortestPathTree<V extends Identifiable, E> {
+
+    private final DirectedGraph<V,E> graph;
+    private final V source;
+    private final Function<E,Double> weightMapper;
+
+    private final Map<V,Double> weights = new HashMap<>();     // weight of the shortest path towards each reachable vertex
+    private final Map<V,V> parents = new HashMap<>();          // the preceding vertex on the shortest path
+    private final Map<V,Set<V>> children = new HashMap<>();    // the inverse of parents
+    private int numRepairedVertices = 0;
+
+    // a candidate in the priority queue of the dijkstra propagation; outdated candidates are skipped
+    private class Candidate implements Comparable<Candidate> {
+        private final V vertex;
+        private final double weight;
+
+        private Candidate(V vertex, double weight) {
+            this.vertex = vertex;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(weight, other.weight);
+        }
+    }
+
+    /**
+     * calculates the initial shortest path tree from the source
+     * @param graph
+     * @param sourceId      id of the source vertex of the tree
+     * @param weightMapper  provides a function, by which the weight of an edge can be retrieved or calculated
+     *                      all weights should be non-negative
+     */
+    public ShortestPathTree(DirectedGraph<V,E> graph, String sourceId, Function<E,Double> weightMapper) {
+        this.graph = graph;
+        this.source = graph.getVertexById(sourceId);
+        this.weightMapper = weightMapper;
+        if (this.source == null) {
+            throw new IllegalArgumentException("Unknown source vertex " + sourceId);
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        this.weights.put(source, 0.0);
+        queue.offer(new Candidate(source, 0.0));
+        this.propagate(queue);
+    }
+
+    public V getSource() {
+        return source;
+    }
+
+    /**
+     * @param targetId
+     * @return  the weight of the shortest path from the source to the target,
+     *          infinity if the target cannot be reached or is unknown
+     */
+    public double getWeightTo(String targetId) {
+        return weights.getOrDefault(graph.getVertexById(targetId), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param targetId
+     * @return  the shortest path from the source to the target, with the vertices of the path as visited
+     *          returns null if the target cannot be reached or is unknown
+     */
+    public DirectedGraph<V,E>.DGPath getPath(String targetId) {
+        V target = graph.getVertexById(targetId);
+        if (target == null || !weights.containsKey(target)) return null;
+
+        Deque<V> pathVertices = new ArrayDeque<>();
+        for (V vertex = target; vertex != null; vertex = parents.get(vertex)) {
+            pathVertices.addFirst(vertex);
+        }
+        return graph.createPath(pathVertices, weights.get(target), pathVertices);
+    }
+
+    /**
+     * @return  the number of vertices of which the shortest path has been recalculated by the last repair
+     */
+    public int getNumRepairedVertices() {
+        return numRepairedVertices;
+    }
+
+    /**
+     * repairs the tree after the weight of the edge from 'from' to 'to' has changed
+     * @param from
+     * @param to
+     */
+    public void edgeChanged(V from, V to) {
+        this.edgesChanged(List.of(List.of(from, to)));
+    }
+
+    /**
+     * repairs the tree after the weights of a batch of edges have changed
+     * @param changedEdges  the from-vertex and to-vertex of each changed edge
+     */
+    public void edgesChanged(Collection<? extends List<V>> changedEdges) {
+        numRepairedVertices = 0;
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+
+        // detach the subtrees below tree edges that have become heavier
+        Set<V> detached = new HashSet<>();
+        for (List<V> edge : changedEdges) {
+            V from = edge.get(0), to = edge.get(1);
+            if (!from.equals(parents.get(to)) || detached.contains(to)) continue;
+            if (weights.get(from) + this.weightOf(from, to) > weights.get(to)) {
+                this.collectSubtree(to, detached);
+            }
+        }
+        for (V vertex : detached) {
+            weights.remove(vertex);
+            this.setParent(vertex, null);
+        }
+
+        // reattach the detached vertices via their lightest incoming edge from outside the subtrees
+        for (V vertex : detached) {
+            for (V predecessor : graph.getPredecessors(vertex)) {
+                Double predecessorWeight = weights.get(predecessor);
+                if (predecessorWeight == null) continue;
+                this.relax(predecessor, predecessorWeight, vertex, queue);
+            }
+        }
+
+        // propagate edges which have become lighter
+        for (List<V> edge : changedEdges) {
+            V from = edge.get(0), to = edge.get(1);
+            Double fromWeight = weights.get(from);
+            if (fromWeight != null) this.relax(from, fromWeight, to, queue);
+        }
+
+        this.propagate(queue);
+        // vertices that could not be reattached have become unreachable
+        for (V vertex : detached) {
+            if (!weights.containsKey(vertex)) numRepairedVertices++;
+        }
+    }
+
+    private double weightOf(V from, V to) {
+        return weightMapper.apply(graph.getEdge(from, to));
+    }
+
+    // adds all vertices of the subtree below root to subtree
+    private void collectSubtree(V root, Set<V> subtree) {
+        Deque<V> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            V vertex = stack.pop();
+            if (subtree.add(vertex)) {
+                for (V child : children.getOrDefault(vertex, Collections.emptySet())) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    private void setParent(V vertex, V parent) {
+        V oldParent = (parent != null ? parents.put(vertex, parent) : parents.remove(vertex));
+        if (oldParent != null) {
+            Set<V> siblings = children.get(oldParent);
+            siblings.remove(vertex);
+            if (siblings.isEmpty()) children.remove(oldParent);
+        }
+        if (parent != null) {
+            children.computeIfAbsent(parent, p -> new HashSet<>()).add(vertex);
+        }
+    }
+
+    // improves the path towards 'to' via the edge from 'from', if that edge provides a shorter path
+    private void relax(V from, double fromWeight, V to, PriorityQueue<Candidate> queue) {
+        double weight = fromWeight + this.weightOf(from, to);
+        if (weight < weights.getOrDefault(to, Double.POSITIVE_INFINITY)) {
+            weights.put(to, weight);
+            this.setParent(to, from);
+            queue.offer(new Candidate(to, weight));
+        }
+    }
+
+    // dijkstra's algorithm from the candidates in the queue, continuing only while paths improve
+    private void propagate(PriorityQueue<Candidate> queue) {
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (candidate.weight > weights.get(candidate.vertex)) continue;
+            numRepairedVertices++;
+            for (V neighbour : graph.getNeighbours(candidate.vertex)) {
+                this.relax(candidate.vertex, candidate.weight, neighbour, queue);
+            }
+        }
+    }
+}
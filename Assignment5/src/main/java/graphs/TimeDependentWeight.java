@@ -0,0 +1,17 @@
+package graphs;
+
+/**
+ * provides the weight of an edge that depends on the time at which the edge is entered, e.g. the travel time of a road
+ * the weights must satisfy the FIFO property: entering an edge later never leaves it earlier, i.e.
+ *      t1 <= t2  implies  t1 + weightAt(edge, t1) <= t2 + weightAt(edge, t2)
+ * otherwise a time-dependent search may miss the earliest arrival
+ */
+@FunctionalInterface
+public interface TimeDependentWeight<E> {
+    /**
+     * @param edge
+     * @param departureTime the time at which the edge is entered
+     * @return  the non-negative weight of the edge when entered at departureTime, in the same unit as the time
+     */
+    double weightAt(E edge, double departureTime);
+}
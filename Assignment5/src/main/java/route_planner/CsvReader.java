@@ -0,0 +1,216 @@
+package route_planner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A streaming reader of delimiter separated files, which splits the records at the byte level,
+ * and parses numbers without creating strings or matching regular expressions (unlike java.util.Scanner).
+ *
+ * Each record is one line; a leading UTF-8 byte order mark is skipped, and a trailing carriage return is ignored.
+ * The fields of the current record are addressed by their position, and are trimmed from surrounding whitespace.
+ * Text fields are decoded as UTF-8.
+ */
+class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // exact powers of ten, for the fast path of parseDouble
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int p = 1; p < POWERS_OF_TEN.length; p++) {
+            POWERS_OF_TEN[p] = POWERS_OF_TEN[p - 1] * 10.0;
+        }
+    }
+
+    private final InputStream inputStream;
+    private final byte delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLimit = 0;
+    private boolean isFirstRead = true;
+
+    private byte[] line = new byte[256];        // the bytes of the current record
+    private int lineLength = 0;
+    private int[] fieldStarts = new int[16];    // the trimmed bounds of the fields of the current record
+    private int[] fieldEnds = new int[16];
+    private int numFields = 0;
+
+    CsvReader(InputStream inputStream, char delimiter) {
+        this.inputStream = inputStream;
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * advances to the next record
+     * @return  false if the end of the input has been reached
+     */
+    boolean nextRecord() {
+        lineLength = 0;
+        boolean hasData = false;
+        while (true) {
+            if (bufferPosition == bufferLimit && !this.fillBuffer()) break;
+            hasData = true;
+            // copy the bytes up to the end of the line at once
+            int end = bufferPosition;
+            while (end < bufferLimit && buffer[end] != '\n') end++;
+            this.appendToLine(bufferPosition, end - bufferPosition);
+            if (end < bufferLimit) {
+                bufferPosition = end + 1;
+                break;
+            }
+            bufferPosition = end;
+        }
+        if (!hasData) return false;
+
+        if (lineLength > 0 && line[lineLength - 1] == '\r') lineLength--;
+        this.splitFields();
+        return true;
+    }
+
+    private boolean fillBuffer() {
+        try {
+            bufferLimit = inputStream.read(buffer, 0, buffer.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bufferPosition = 0;
+        if (bufferLimit <= 0) {
+            bufferLimit = 0;
+            return false;
+        }
+        if (isFirstRead) {
+            isFirstRead = false;
+            // skip the UTF-8 byte order mark
+            if (bufferLimit >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+                bufferPosition = 3;
+            }
+        }
+        return true;
+    }
+
+    private void appendToLine(int from, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(lineLength + length, 2 * line.length));
+        }
+        System.arraycopy(buffer, from, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private void splitFields() {
+        numFields = 0;
+        int start = 0;
+        for (int i = 0; i <= lineLength; i++) {
+            if (i < lineLength && line[i] != delimiter) continue;
+            if (numFields == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, 2 * numFields);
+                fieldEnds = Arrays.copyOf(fieldEnds, 2 * numFields);
+            }
+            int fieldStart = start, fieldEnd = i;
+            while (fieldStart < fieldEnd && (line[fieldStart] & 0xFF) <= ' ') fieldStart++;
+            while (fieldEnd > fieldStart && (line[fieldEnd - 1] & 0xFF) <= ' ') fieldEnd--;
+            fieldStarts[numFields] = fieldStart;
+            fieldEnds[numFields] = fieldEnd;
+            numFields++;
+            start = i + 1;
+        }
+    }
+
+    /**
+     * @return  the number of fields of the current record; an empty line has one empty field
+     */
+    int getNumFields() {
+        return numFields;
+    }
+
+    boolean isEmpty(int field) {
+        return field >= numFields || fieldStarts[field] == fieldEnds[field];
+    }
+
+    String getString(int field) {
+        this.checkField(field);
+        return new String(line, fieldStarts[field], fieldEnds[field] - fieldStarts[field], StandardCharsets.UTF_8);
+    }
+
+    int getInt(int field) {
+        this.checkField(field);
+        int position = fieldStarts[field], end = fieldEnds[field];
+        boolean isNegative = position < end && line[position] == '-';
+        if (position < end && (line[position] == '-' || line[position] == '+')) position++;
+        if (position == end) throw this.numberFormatException(field);
+
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = line[position] - '0';
+            if (digit < 0 || digit > 9) throw this.numberFormatException(field);
+            value = 10 * value + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) throw this.numberFormatException(field);
+        }
+        value = (isNegative ? -value : value);
+        if (value > Integer.MAX_VALUE) throw this.numberFormatException(field);
+        return (int) value;
+    }
+
+    /**
+     * parses a decimal number without exponent directly from the bytes,
+     * which is exact if the digits fit into the 53 bits of a double and there are at most 22 decimals:
+     * then both the digits and the power of ten are exact, and their division is correctly rounded.
+     * other numbers are left to Double.parseDouble
+     */
+    double getDouble(int field) {
+        this.checkField(field);
+        int position = fieldStarts[field], end = fieldEnds[field];
+        boolean isNegative = position < end && line[position] == '-';
+        if (position < end && (line[position] == '-' || line[position] == '+')) position++;
+
+        long digits = 0;
+        int numDigits = 0, numDecimals = 0;
+        boolean hasPoint = false;
+        for (; position < end; position++) {
+            byte b = line[position];
+            if (b == '.' && !hasPoint) {
+                hasPoint = true;
+            } else if (b >= '0' && b <= '9') {
+                if (digits >= (1L << 53) / 10) return this.parseDoubleSlowly(field);
+                digits = 10 * digits + (b - '0');
+                numDigits++;
+                if (hasPoint) numDecimals++;
+            } else {
+                return this.parseDoubleSlowly(field);
+            }
+        }
+        if (numDigits == 0 || numDecimals >= POWERS_OF_TEN.length) return this.parseDoubleSlowly(field);
+
+        double value = digits / POWERS_OF_TEN[numDecimals];
+        return (isNegative ? -value : value);
+    }
+
+    private double parseDoubleSlowly(int field) {
+        try {
+            return Double.parseDouble(this.getString(field));
+        } catch (NumberFormatException e) {
+            throw this.numberFormatException(field);
+        }
+    }
+
+    private void checkField(int field) {
+        if (field >= numFields) {
+            throw new IllegalArgumentException("Record has no field " + field + ": " +
+                    new String(line, 0, lineLength, StandardCharsets.UTF_8));
+        }
+    }
+
+    private NumberFormatException numberFormatException(int field) {
+        return new NumberFormatException("Invalid number in field " + field + ": '" + this.getString(field) + "'");
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+}
@@ -1,16 +1,15 @@
 package route_planner;
 
-import graphs.DirectedGraph;
-import graphs.Identifiable;
+import graphs.Indexed;
 
 import java.io.PrintStream;
-import java.util.Locale;
+import java.io.PrintWriter;
 import java.util.Objects;
 
-public class Junction extends DirectedGraph implements Identifiable
-
-{
+public class Junction implements Indexed {
     private String name;            // unique name of the junction
+    private int hashCode;           // cached hash code of the name
+    private int index = -1;         // dense index of the junction in its RoadMap
     private double locationX;       // RD x-coordinate in km
     private double locationY;       // RD y-coordinate in km
     private int population;         // indicates importance of the junction, used for graphical purposes only
@@ -18,7 +17,7 @@ public class Junction extends DirectedGraph implements Identifiable
     public Junction() {}
 
     public Junction(String name) {
-        this.name = name;
+        this.setName(name);
     }
 
     public String getName() {
@@ -27,6 +26,17 @@ public class Junction extends DirectedGraph implements Identifiable
 
     public void setName(String name) {
         this.name = name;
+        this.hashCode = Objects.hashCode(name);
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
     }
 
     public double getLocationX() {
@@ -59,38 +69,39 @@ public class Junction extends DirectedGraph implements Identifiable
      * @param colour
      */
     public void svgDraw(PrintStream svgWriter, String colour) {
+        SvgWriter writer = new SvgWriter(new PrintWriter(svgWriter));
+        this.svgDraw(writer, colour);
+        writer.flush();
+    }
+
+    void svgDraw(SvgWriter svgWriter, String colour) {
         // calculate the size of the dot relative to population at the junction
         double radius = 0.1 + 0.3 * Math.log(1 + population / 2000);
-        //radius = 0.1;
         int fontSize = 3;
 
         // accounts for the reversed y-direction of the svg coordinate system relative to RD-coordinates
-        svgWriter.printf(Locale.ENGLISH,"<circle cx='%.3f' cy='%.3f' r='%.3f' fill='%s'/>\n",
-                locationX, -locationY, radius, colour);
-        svgWriter.printf(Locale.ENGLISH,"<text x='%.3f' y='%.3f' font-size='%d' fill='%s' text-anchor='middle'>%s</text>\n",
-                locationX, -locationY - 1.3, fontSize, colour, name);
-
+        svgWriter.circle(locationX, -locationY, radius, colour);
+        svgWriter.text(locationX, -locationY - 1.3, fontSize, colour, name);
     }
 
-    /**
-     * draws all road segments starting from the junction with their default colour
-     * @param svgWriter
-     */
-
     /**
      * Draws the road segment onto a .svg image with the specified colour
-     * If no colour is provided, a default will be calculated on the basis of the maxSpeed
      * @param svgWriter
      * @param colour
      */
     public void svgDrawRoad(PrintStream svgWriter, Junction from, double width, String colour) {
+        SvgWriter writer = new SvgWriter(new PrintWriter(svgWriter));
+        this.svgDrawRoad(writer, from, width, colour);
+        writer.flush();
+    }
+
+    void svgDrawRoad(SvgWriter svgWriter, Junction from, double width, String colour) {
         if (from == null) return;
         // accounts for the reversed y-direction of the svg coordinate system relative from RD-coordinates
-        svgWriter.printf(Locale.ENGLISH, "<line x1='%.3f' y1='%.3f' x2='%.3f' y2='%.3f' stroke-width='%.3f' stroke='%s'/>\n",
-                this.getLocationX(), -this.getLocationY(),
+        svgWriter.line(this.getLocationX(), -this.getLocationY(),
                 from.getLocationX(), -from.getLocationY(),
                 width, colour);
-}
+    }
 
     @Override
     public String toString() {
@@ -103,12 +114,15 @@ public class Junction extends DirectedGraph implements Identifiable
      * @return
      */
     double getDistance(Junction target) {
-        // calculate the cartesion distance between this and the target junction
+        return this.getDistance(target.locationX, target.locationY);
+    }
+
+    double getDistance(double x, double y) {
+        // calculate the cartesion distance between this junction and the location
         // using the locationX and locationY as provided in the dutch RD-coordinate system
-        double dX = target.locationX - locationX;
-        double dY = target.locationY - locationY;
+        double dX = x - locationX;
+        double dY = y - locationY;
         return Math.sqrt(dX*dX + dY*dY);
-
     }
 
     @Override
@@ -121,12 +135,12 @@ public class Junction extends DirectedGraph implements Identifiable
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Junction junction = (Junction) o;
-        return Objects.equals(name, junction.name);
+        return hashCode == junction.hashCode && Objects.equals(name, junction.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return hashCode;
     }
 
 }
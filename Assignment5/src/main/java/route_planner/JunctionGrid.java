@@ -0,0 +1,136 @@
+package route_planner;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A uniform grid over the RD-coordinates of junctions, to find the junctions near a location
+ * without calculating the distance towards every junction of the map.
+ *
+ * Each junction is kept in the square cell that contains its location. Queries inspect the cells
+ * in rings of increasing size around the cell of the location, and stop as soon as no cell outside
+ * the inspected rings can hold a junction nearer than the ones found sofar.
+ * With a cell size in the order of the typical distance between junctions, a query inspects a few cells only.
+ *
+ * The location of a junction should not change while it is kept in the grid.
+ */
+class JunctionGrid {
+
+    private final double cellSize;                              // width and height of a cell in km
+    private final Map<Long,List<Junction>> cells = new HashMap<>();
+    private int size = 0;
+
+    // the range of cell coordinates that has ever been occupied, which bounds the ring search
+    private int minCellX = Integer.MAX_VALUE, maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE, maxCellY = Integer.MIN_VALUE;
+
+    JunctionGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    private int cellOf(double location) {
+        return (int) Math.floor(location / cellSize);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    public void add(Junction junction) {
+        int cellX = this.cellOf(junction.getLocationX());
+        int cellY = this.cellOf(junction.getLocationY());
+        cells.computeIfAbsent(cellKey(cellX, cellY), k -> new ArrayList<>()).add(junction);
+        size++;
+        minCellX = Math.min(minCellX, cellX);
+        maxCellX = Math.max(maxCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    /**
+     * removes all junctions which satisfy the filter from the grid
+     * @param filter
+     */
+    public void removeIf(Predicate<Junction> filter) {
+        Iterator<List<Junction>> iterator = cells.values().iterator();
+        while (iterator.hasNext()) {
+            List<Junction> cell = iterator.next();
+            int cellSizeBefore = cell.size();
+            cell.removeIf(filter);
+            size -= cellSizeBefore - cell.size();
+            if (cell.isEmpty()) iterator.remove();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * finds the k junctions nearest to the location
+     * @param x     RD x-coordinate in km
+     * @param y     RD y-coordinate in km
+     * @param k
+     * @return  at most k junctions, ordered by increasing distance towards the location
+     */
+    public List<Junction> nearest(double x, double y, int k) {
+        if (k <= 0 || size == 0) return new ArrayList<>();
+
+        // the k nearest junctions sofar, with the farthest of them on top
+        PriorityQueue<Junction> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble((Junction j) -> j.getDistance(x, y)).reversed());
+        int centreX = this.cellOf(x), centreY = this.cellOf(y);
+        int maxRing = Math.max(Math.max(centreX - minCellX, maxCellX - centreX),
+                Math.max(centreY - minCellY, maxCellY - centreY));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cellX = centreX - ring; cellX <= centreX + ring; cellX++) {
+                // only the border of the square ring is new; its inside has been inspected already
+                int step = (cellX == centreX - ring || cellX == centreX + ring ? 1 : Math.max(1, 2 * ring));
+                for (int cellY = centreY - ring; cellY <= centreY + ring; cellY += step) {
+                    List<Junction> cell = cells.get(cellKey(cellX, cellY));
+                    if (cell == null) continue;
+                    for (Junction junction : cell) {
+                        nearest.offer(junction);
+                        if (nearest.size() > k) nearest.poll();
+                    }
+                }
+            }
+            // any junction outside the inspected rings is at least ring * cellSize away
+            if (nearest.size() == k && nearest.peek().getDistance(x, y) <= ring * cellSize) break;
+        }
+
+        List<Junction> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(j -> j.getDistance(x, y)));
+        return result;
+    }
+
+    /**
+     * finds all junctions within a radius of the location
+     * @param x         RD x-coordinate in km
+     * @param y         RD y-coordinate in km
+     * @param radius    in km
+     * @return  the junctions ordered by increasing distance towards the location
+     */
+    public List<Junction> within(double x, double y, double radius) {
+        List<Junction> result = new ArrayList<>();
+        if (size == 0 || radius < 0) return result;
+
+        int fromCellX = Math.max(minCellX, this.cellOf(x - radius));
+        int toCellX = Math.min(maxCellX, this.cellOf(x + radius));
+        int fromCellY = Math.max(minCellY, this.cellOf(y - radius));
+        int toCellY = Math.min(maxCellY, this.cellOf(y + radius));
+        for (int cellX = fromCellX; cellX <= toCellX; cellX++) {
+            for (int cellY = fromCellY; cellY <= toCellY; cellY++) {
+                List<Junction> cell = cells.get(cellKey(cellX, cellY));
+                if (cell == null) continue;
+                for (Junction junction : cell) {
+                    if (junction.getDistance(x, y) <= radius) result.add(junction);
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(j -> j.getDistance(x, y)));
+        return result;
+    }
+}
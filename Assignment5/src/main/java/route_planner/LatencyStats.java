@@ -0,0 +1,52 @@
+package route_planner;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent requests of one endpoint in a ring buffer,
+ * from which percentiles are calculated on demand.
+ * Recording is cheap and may be done from multiple threads.
+ */
+class LatencyStats {
+    private final long[] samples;       // latencies in nanoseconds, the oldest ones being overwritten
+    private long count = 0;             // total number of recorded latencies
+    private long maxNanos = 0;
+
+    LatencyStats(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @param percentiles   e.g. 50.0, 99.0
+     * @return  the latency in nanoseconds below which the given percentage of the recent samples falls,
+     *          per requested percentile, 0 if nothing has been recorded yet
+     */
+    long[] getPercentiles(double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+        }
+        Arrays.sort(sorted);
+        long[] result = new long[percentiles.length];
+        for (int p = 0; p < percentiles.length && sorted.length > 0; p++) {
+            // nearest-rank method
+            int rank = (int) Math.ceil(percentiles[p] / 100.0 * sorted.length);
+            result[p] = sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+        return result;
+    }
+}
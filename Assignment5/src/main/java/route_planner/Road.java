@@ -1,9 +1,16 @@
 package route_planner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
 public class Road {
     private String name;        // the name of the road segment
     private double length;      // the fysical length of the segment in km
     private int maxSpeed;       // the maximum driving speed on the segment in km/h
+    private SpeedProfile speedProfile = null;      // the daily pattern of the speed, null if always at maxSpeed
+    // receive the road and a copy of its previous state upon changes, one per direction in which the road is used
+    private List<BiConsumer<Road,Road>> changeHandlers = null;
 
     public Road(String name) {
         this.name = name;
@@ -17,6 +24,7 @@ public class Road {
 
     public Road(Road copy) {
         this(copy.name, copy.length, copy.maxSpeed);
+        this.speedProfile = copy.speedProfile;
     }
 
     public String getName() {
@@ -32,7 +40,10 @@ public class Road {
     }
 
     public void setLength(double length) {
+        if (length == this.length) return;
+        Road previous = (changeHandlers != null ? new Road(this) : null);
         this.length = length;
+        this.fireChanged(previous);
     }
 
     public int getMaxSpeed() {
@@ -40,7 +51,51 @@ public class Road {
     }
 
     public void setMaxSpeed(int maxSpeed) {
+        if (maxSpeed == this.maxSpeed) return;
+        Road previous = (changeHandlers != null ? new Road(this) : null);
         this.maxSpeed = maxSpeed;
+        this.fireChanged(previous);
+    }
+
+    public SpeedProfile getSpeedProfile() {
+        return speedProfile;
+    }
+
+    /**
+     * sets the daily pattern of the driving speed on this road
+     * (the speed limit and the length of the road still provide its static weights)
+     * @param speedProfile  null if the road can always be driven at its speed limit
+     */
+    public void setSpeedProfile(SpeedProfile speedProfile) {
+        this.speedProfile = speedProfile;
+    }
+
+    /**
+     * calculates the time to drive this road, when entering it at the given time
+     * @param departureTime in hours since midnight (of any day)
+     * @return  the travel time in hours, never shorter than at the speed limit
+     */
+    public double getTravelTime(double departureTime) {
+        if (speedProfile == null) return length / maxSpeed;
+        return speedProfile.travelTime(length, maxSpeed, departureTime);
+    }
+
+    /**
+     * registers a handler of changes of the length or speed limit of this road
+     * (the RoadMap that holds the road uses this to inform its RoadChangeListeners,
+     * with a handler for each direction in which the road connects two junctions)
+     * @param changeHandler
+     */
+    void addChangeHandler(BiConsumer<Road,Road> changeHandler) {
+        if (changeHandlers == null) changeHandlers = new ArrayList<>(2);
+        changeHandlers.add(changeHandler);
+    }
+
+    private void fireChanged(Road previous) {
+        if (changeHandlers == null) return;
+        for (BiConsumer<Road,Road> changeHandler : changeHandlers) {
+            changeHandler.accept(this, previous);
+        }
     }
 
     @Override
@@ -0,0 +1,27 @@
+package route_planner;
+
+/**
+ * gets notified when the length or speed limit of a road segment in a RoadMap changes,
+ * and when a road segment is added to the map
+ */
+@FunctionalInterface
+public interface RoadChangeListener {
+    /**
+     * @param from      the junction where the road segment starts
+     * @param to        the junction where the road segment ends
+     * @param road      the road segment after the change
+     * @param previous  a copy of the road segment before the change
+     */
+    void roadChanged(Junction from, Junction to, Road road, Road previous);
+
+    /**
+     * by default, a new road segment is reported as a change of a road segment of infinite length,
+     * which could not be driven before
+     * @param from      the junction where the road segment starts
+     * @param to        the junction where the road segment ends
+     * @param road      the road segment that has been added
+     */
+    default void roadAdded(Junction from, Junction to, Road road) {
+        this.roadChanged(from, to, road, new Road(road.getName(), Double.POSITIVE_INFINITY, road.getMaxSpeed()));
+    }
+}
@@ -1,16 +1,28 @@
 package route_planner;
 
 import graphs.DirectedGraph;
+import graphs.FrozenGraph;
+import graphs.ParetoFront;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintStream;
-import java.util.Locale;
-import java.util.Random;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 public class RoadMap extends DirectedGraph<Junction, Road> {
 
+    /**
+     * creates an empty road map, to be filled with addOrGetVertex and addEdge
+     */
+    public RoadMap() { }
+
     public RoadMap(String junctionsResource, String roadsResource) {
         System.out.printf("\nImporting junctions and roads from %s and %s...\n",
                 junctionsResource, roadsResource);;
@@ -32,7 +44,21 @@ public class RoadMap extends DirectedGraph<Junction, Road> {
         randomizer = new Random(seed);
     }
 
-    private static final String DELIMITER = ";";
+    private static final char DELIMITER = ';';
+
+    // the highest speed limit of all roads in the map, which bounds the travel time heuristic of A*
+    private int maxSpeed = 0;
+
+    private final List<RoadChangeListener> roadChangeListeners = new CopyOnWriteArrayList<>();
+
+    // the cell size of the spatial index, in the order of the typical distance between junctions in km
+    private static final double GRID_CELL_SIZE = 10.0;
+    private final JunctionGrid junctionGrid = new JunctionGrid(GRID_CELL_SIZE);
+
+    // the svg images span 300 km over a width of 20cm, which is 756 pixels at 96 dpi
+    private static final double SVG_PIXELS_PER_KM = 20 / 2.54 * 96 / 300;
+    private int svgMinSpeed = 0;
+    private double svgMinPixelLength = 0.0;
 
     /**
      * imports a list of junctions from a resource file in the project.
@@ -43,31 +69,37 @@ public class RoadMap extends DirectedGraph<Junction, Road> {
      */
     public int importJunctions(String resourceName) {
         if (resourceName == null) return 0;
+        return this.importJunctions(RoadMap.class.getClassLoader().getResourceAsStream(resourceName));
+    }
+
+    /**
+     * imports a list of junctions from a stream in the format of the junctions resource files
+     * (the header line is skipped), and closes the stream
+     * @param inputStream
+     * @return
+     */
+    public int importJunctions(InputStream inputStream) {
         int numLoaded = 0;
 
-        Scanner scanner = new Scanner(
-                RoadMap.class.getClassLoader().getResourceAsStream(resourceName));
-
-        scanner.useDelimiter(DELIMITER);
-        scanner.useLocale(Locale.ENGLISH);
-
-        // skip header line
-        String header = scanner.nextLine();
-        // System.out.println(header);
-
-        while (scanner.hasNext()) {
-            Junction junction = new Junction();
-            scanner.nextInt(); // skip code
-            junction.setName(scanner.next().trim());
-            junction.setLocationX(scanner.nextDouble());
-            junction.setLocationY(scanner.nextDouble());
-            scanner.next(); // skip province
-            junction.setPopulation(scanner.nextInt());
-
-            // add the junction to the DirectedGraph data structure
-            this.addOrGetVertex(junction);
-            numLoaded++;
-            scanner.nextLine();
+        try (CsvReader reader = new CsvReader(inputStream, DELIMITER)) {
+            // skip header line
+            reader.nextRecord();
+
+            while (reader.nextRecord()) {
+                if (reader.getNumFields() == 1 && reader.isEmpty(0)) continue;
+                Junction junction = new Junction();
+                // field 0 holds the code, field 4 the province, which are skipped
+                junction.setName(reader.getString(1));
+                junction.setLocationX(reader.getDouble(2));
+                junction.setLocationY(reader.getDouble(3));
+                junction.setPopulation(reader.getInt(5));
+
+                // add the junction to the DirectedGraph data structure
+                this.addOrGetVertex(junction);
+                numLoaded++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
         return numLoaded;
@@ -84,54 +116,272 @@ public class RoadMap extends DirectedGraph<Junction, Road> {
      */
     public int importRoads(String resourceName) {
         if (resourceName == null) return 0;
+        return this.importRoads(RoadMap.class.getClassLoader().getResourceAsStream(resourceName));
+    }
+
+    /**
+     * imports a list of road segments from a stream in the format of the roads resource files
+     * (the header line is skipped), and closes the stream
+     * the list of junctions of a road ends at an empty field
+     * @param inputStream
+     * @return
+     */
+    public int importRoads(InputStream inputStream) {
         int numLoaded = 0;
 
-        Scanner scanner = new Scanner(
-                RoadMap.class.getClassLoader().getResourceAsStream(resourceName));
-
-        scanner.useDelimiter(DELIMITER);
-        scanner.useLocale(Locale.ENGLISH);
-
-        // skip header line
-        String header = scanner.nextLine();
-        // System.out.println(header);
-        System.out.println("____________________");
-        while (scanner.hasNext()) {
-            // road name
-            String name = scanner.next().trim();
-            int speedlimit = scanner.nextInt();
-
-            // first junction name: the start of the road
-            String jName = scanner.next().trim();
-            // retrieve the associated junction from the DirectedGraph data structure
-            Junction prevJunction = getVertexById(jName);
-
-            // process the list of junctions connected by this road
-            while (scanner.hasNext() && prevJunction != null) {
-                // next junction
-                jName = scanner.next().trim();
-                if (jName == null || jName.isEmpty()) {
-                    break;
-                }
-                Junction nextJunction = getVertexById(jName);
-
-                // configure two road segments for this connection, in opposite directions
-                if (nextJunction != null) {
-                    // add the road segments to the DirectedGraph data structures
-                    double distanceMultiplier = 1.05 + 0.1 * randomizer.nextDouble();
-                    Road road = new Road(name, distanceMultiplier * prevJunction.getDistance(nextJunction), speedlimit);
-                    addEdge(prevJunction, nextJunction, road);
-                    addEdge(nextJunction, prevJunction, new Road(road));
-                    numLoaded++;
-                    prevJunction = nextJunction;
+        try (CsvReader reader = new CsvReader(inputStream, DELIMITER)) {
+            // skip header line
+            reader.nextRecord();
+            System.out.println("____________________");
+            while (reader.nextRecord()) {
+                if (reader.getNumFields() == 1 && reader.isEmpty(0)) continue;
+                // road name
+                String name = reader.getString(0);
+                int speedlimit = reader.getInt(1);
+
+                // first junction name: the start of the road
+                // retrieve the associated junction from the DirectedGraph data structure
+                Junction prevJunction = getVertexById(reader.getString(2));
+
+                // process the list of junctions connected by this road
+                for (int field = 3; prevJunction != null && !reader.isEmpty(field); field++) {
+                    // next junction
+                    Junction nextJunction = getVertexById(reader.getString(field));
+
+                    // configure two road segments for this connection, in opposite directions
+                    if (nextJunction != null) {
+                        // add the road segments to the DirectedGraph data structures
+                        double distanceMultiplier = 1.05 + 0.1 * randomizer.nextDouble();
+                        Road road = new Road(name, distanceMultiplier * prevJunction.getDistance(nextJunction), speedlimit);
+                        addEdge(prevJunction, nextJunction, road);
+                        addEdge(nextJunction, prevJunction, new Road(road));
+                        numLoaded++;
+                        prevJunction = nextJunction;
+                    }
                 }
             }
-            scanner.nextLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
         return numLoaded;
     }
 
+    @Override
+    public Junction addOrGetVertex(Junction newVertex) {
+        int numVertices = this.getNumVertices();
+        Junction junction = super.addOrGetVertex(newVertex);
+        if (this.getNumVertices() > numVertices) this.junctionGrid.add(junction);
+        return junction;
+    }
+
+    @Override
+    public void removeUnconnectedVertices() {
+        super.removeUnconnectedVertices();
+        this.junctionGrid.removeIf(junction -> this.getVertexById(junction.getId()) != junction);
+    }
+
+    /**
+     * finds the junction nearest to a location in the map
+     * @param x     RD x-coordinate in km
+     * @param y     RD y-coordinate in km
+     * @return  the nearest junction, null if the map has no junctions
+     */
+    public Junction nearestJunction(double x, double y) {
+        List<Junction> nearest = this.junctionGrid.nearest(x, y, 1);
+        return (nearest.isEmpty() ? null : nearest.get(0));
+    }
+
+    /**
+     * finds the k junctions nearest to a location in the map
+     * @param x     RD x-coordinate in km
+     * @param y     RD y-coordinate in km
+     * @param k
+     * @return  at most k junctions, ordered by increasing distance towards the location
+     */
+    public List<Junction> nearestJunctions(double x, double y, int k) {
+        return this.junctionGrid.nearest(x, y, k);
+    }
+
+    /**
+     * finds all junctions in the map within a radius of a location
+     * @param x         RD x-coordinate in km
+     * @param y         RD y-coordinate in km
+     * @param radius    in km
+     * @return  the junctions ordered by increasing distance towards the location
+     */
+    public List<Junction> junctionsWithin(double x, double y, double radius) {
+        return this.junctionGrid.within(x, y, radius);
+    }
+
+    @Override
+    public boolean addEdge(Junction fromVertex, Junction toVertex, Road newEdge) {
+        if (!super.addEdge(fromVertex, toVertex, newEdge)) return false;
+        this.registerRoad(this.getVertexById(fromVertex.getId()), this.getVertexById(toVertex.getId()), newEdge);
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(String fromId, String toId, Road newEdge) {
+        if (!super.addEdge(fromId, toId, newEdge)) return false;
+        this.registerRoad(this.getVertexById(fromId), this.getVertexById(toId), newEdge);
+        return true;
+    }
+
+    // keeps track of the highest speed limit and of changes of the new road segment in this direction,
+    // and notifies the listeners of the new road segment
+    private void registerRoad(Junction from, Junction to, Road road) {
+        this.maxSpeed = Math.max(this.maxSpeed, road.getMaxSpeed());
+        road.addChangeHandler((changed, previous) -> this.fireRoadChanged(from, to, changed, previous));
+        for (RoadChangeListener listener : this.roadChangeListeners) {
+            listener.roadAdded(from, to, road);
+        }
+    }
+
+    private void fireRoadChanged(Junction from, Junction to, Road road, Road previous) {
+        // a lowered speed limit keeps the old maximum, which still bounds the travel time heuristic
+        this.maxSpeed = Math.max(this.maxSpeed, road.getMaxSpeed());
+        for (RoadChangeListener listener : this.roadChangeListeners) {
+            listener.roadChanged(from, to, road, previous);
+        }
+    }
+
+    /**
+     * registers a listener to be notified of every change of the length or speed limit of a road in the map,
+     * and of every road that is added to the map
+     * @param listener
+     */
+    public void addRoadChangeListener(RoadChangeListener listener) {
+        this.roadChangeListeners.add(listener);
+    }
+
+    public void removeRoadChangeListener(RoadChangeListener listener) {
+        this.roadChangeListeners.remove(listener);
+    }
+
+    /**
+     * @return  the highest speed limit of all roads in the map (possibly of a road that has been slowed down since)
+     */
+    public int getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    /**
+     * estimates the weight of the shortest route between two junctions according to the given metric
+     * by the straight-line distance between their RD-coordinates, at the highest speed limit for TRAVEL_TIME.
+     * The estimate never exceeds the actual weight, because no road is shorter than the straight line between its junctions.
+     * @param from
+     * @param to
+     * @param metric
+     * @return  a lower bound of the weight of any route from 'from' to 'to'
+     */
+    public double estimateWeight(Junction from, Junction to, RouteMetric metric) {
+        double distance = from.getDistance(to);
+        return (metric == RouteMetric.DISTANCE ? distance : distance / this.maxSpeed);
+    }
+
+    /**
+     * Calculates the shortest path from start to target according to the given metric
+     * using an A* search with a built-in heuristic based on the RD-coordinates of the junctions:
+     *  DISTANCE:       the straight-line distance towards the target
+     *  TRAVEL_TIME:    the straight-line distance towards the target at the highest speed limit in the map
+     * Both never overestimate, because no road is shorter than the straight line between its junctions.
+     * @param startId
+     * @param targetId
+     * @param metric
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a junction in the map
+     *                          or no path can be found from start to target
+     */
+    public DGPath aStarShortestPath(String startId, String targetId, RouteMetric metric) {
+        return this.aStarShortestPath(startId, targetId, metric.getWeightMapper(),
+                (junction, target) -> this.estimateWeight(junction, target, metric));
+    }
+
+    /**
+     * finds the routes from start to target that trade off length against travel time:
+     * every route of the front is either shorter or faster than each other route of the front
+     * @param startId
+     * @param targetId
+     * @param maxLabelsPerJunction  bounds the number of partial routes per junction that the search continues from
+     * @return  the routes by increasing length (DISTANCE), and hence by decreasing TRAVEL_TIME
+     */
+    public ParetoFront<Junction,Road> paretoRoutes(String startId, String targetId, int maxLabelsPerJunction) {
+        return this.paretoShortestPaths(startId, targetId, RouteMetric.DISTANCE.getWeightMapper(),
+                RouteMetric.TRAVEL_TIME.getWeightMapper(), maxLabelsPerJunction);
+    }
+
+    /**
+     * finds the fastest route from start to target when departing at the given time,
+     * taking the speed profiles of the roads into account
+     * @param startId
+     * @param targetId
+     * @param departureTime in hours since midnight, e.g. 8.5 for half past eight
+     * @return  the fastest route, with the travel time in hours as totalWeight
+     *          returns null if either start or target cannot be matched with a junction in the map
+     *                          or no route can be found from start to target
+     */
+    public DGPath timeDependentRoute(String startId, String targetId, double departureTime) {
+        return this.timeDependentShortestPath(startId, targetId, departureTime, Road::getTravelTime);
+    }
+
+    /**
+     * calculates the shortest routes of a batch of queries.
+     * The queries are grouped by their origin, and a single dijkstra search per origin
+     * runs until all targets of that origin have been settled.
+     * The searches of the groups run in parallel on a frozen snapshot of the map.
+     * @param queries
+     * @param weightMapper  provides the weight of each road
+     * @return  the routes in the order of the queries, with the junctions of each route as visited,
+     *          or null for queries of which either junction is unknown or no route exists;
+     *          together with the timing of the batch
+     */
+    public RouteBatchResult routeBatch(List<RouteQuery> queries, Function<Road,Double> weightMapper) {
+        long startTime = System.nanoTime();
+        FrozenGraph<Junction,Road> frozen = this.freeze(weightMapper::apply);
+        long freezeNanos = System.nanoTime() - startTime;
+
+        // the positions of the queries of each origin
+        Map<String,List<Integer>> groups = new LinkedHashMap<>();
+        for (int q = 0; q < queries.size(); q++) {
+            groups.computeIfAbsent(queries.get(q).getFromId(), id -> new ArrayList<>()).add(q);
+        }
+
+        List<DGPath> paths = new ArrayList<>(Collections.nCopies(queries.size(), null));
+        AtomicLong totalSearchNanos = new AtomicLong();
+        AtomicLong maxSearchNanos = new AtomicLong();
+        startTime = System.nanoTime();
+        groups.entrySet().parallelStream().forEach(group -> {
+            long searchStart = System.nanoTime();
+            List<String> targetIds = new ArrayList<>();
+            for (int q : group.getValue()) {
+                targetIds.add(queries.get(q).getToId());
+            }
+            List<DGPath> groupPaths = frozen.shortestPaths(group.getKey(), targetIds);
+            for (int t = 0; t < groupPaths.size(); t++) {
+                paths.set(group.getValue().get(t), groupPaths.get(t));
+            }
+            long searchNanos = System.nanoTime() - searchStart;
+            totalSearchNanos.addAndGet(searchNanos);
+            maxSearchNanos.accumulateAndGet(searchNanos, Math::max);
+        });
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        return new RouteBatchResult(paths, groups.size(), freezeNanos,
+                elapsedNanos, totalSearchNanos.get(), maxSearchNanos.get());
+    }
+
+    /**
+     * sets the level of detail of the svg images: roads below the speed limit or shorter than the length in pixels
+     * are left out of the map. The roads along a path are drawn anyway.
+     * @param minSpeed          in km/h, 0 to draw roads of any speed
+     * @param minPixelLength    the minimum length on the image at its nominal width of 20cm, 0 to draw roads of any length
+     */
+    public void setSvgLevelOfDetail(int minSpeed, double minPixelLength) {
+        this.svgMinSpeed = minSpeed;
+        this.svgMinPixelLength = minPixelLength;
+    }
+
     /**
      * produces an .svg file in the target classpath folder, which depicts the roadMap and the optional path
      * .svg files can be viewed with a regular browser
@@ -139,58 +389,102 @@ public class RoadMap extends DirectedGraph<Junction, Road> {
      * @param path          optional search path with visited vertices to be coloured into the map
      */
     public void svgDrawMap(String resourceName, DGPath path) {
-        try {
-            //Path resources = Paths.get(this.getClass().getResource("/").getPath());
-            //String svgPath = resources.toAbsolutePath() + "/" + resourceName;
-            String svgPath = new File(getClass().getResource("/").getPath()).getAbsolutePath() +
-                    "/" + resourceName;
-            PrintStream svgWriter = new PrintStream(svgPath);
-
-            // header for an .svg file
-            svgWriter.println("<?xml version='1.0' standalone='no'?>");
-            // configure the viewBox to match the coordinate ranges of the Dutch RD-coordinate system
-            svgWriter.printf("<svg width='20cm' height='30cm' viewBox='%d %d %d %d' preserveAspectRatio='xMidYMin'\n",
-                    0, -625, 300, 300);
-            svgWriter.println("     version='1.1' xmlns='http://www.w3.org/2000/svg'>");
-
-            // first draw all road segments with their default colour
-            for (Junction junction: getVertices()) {
-                this.svgDrawRoads(svgWriter, junction);
-            }
+        Map<String,DGPath> paths = new HashMap<>();
+        paths.put(resourceName, path);
+        this.svgDrawMaps(paths);
+    }
 
-            // on top of that, draw all junctions with a colour depending on their status in the optional path
-            for (Junction junction: getVertices()) {
-                junction.svgDraw(svgWriter,
-                        path != null && path.getVisited().contains(junction) ? "yellowgreen" : "black");
-            }
+    /**
+     * produces an .svg file per path in the target classpath folder, which depicts the roadMap and that path.
+     * The road network is formatted only once and shared by all files, which are written in parallel.
+     * @param paths     the optional path to be drawn, by the name of the file to be generated
+     */
+    public void svgDrawMaps(Map<String,DGPath> paths) {
+        //Path resources = Paths.get(this.getClass().getResource("/").getPath());
+        String folder = new File(getClass().getResource("/").getPath()).getAbsolutePath();
 
-            // on top of that, highlight the path, if any has been provided
-            if (path != null) {
-                Junction from = null;
-                for (Junction neighbour: path.getVertices()) {
-                    neighbour.svgDrawRoad(svgWriter, from, 1.25, "lime");
-                    from = neighbour;
-                }
+        // first draw all road segments with their default colour
+        StringWriter roadLayer = new StringWriter();
+        SvgWriter roadWriter = new SvgWriter(roadLayer);
+        int[] outgoingSpeeds = new int[this.getNumVertices()];
+        int[] outgoingStamps = new int[this.getNumVertices()];
+        Arrays.fill(outgoingStamps, -1);
+        for (Junction junction: getVertices()) {
+            this.svgDrawRoads(roadWriter, junction, outgoingSpeeds, outgoingStamps);
+        }
+        roadWriter.flush();
+        String roads = roadLayer.toString();
+
+        paths.entrySet().parallelStream().forEach(entry -> {
+            String svgPath = folder + "/" + entry.getKey();
+            try (SvgWriter svgWriter = new SvgWriter(Files.newBufferedWriter(Paths.get(svgPath)))) {
+                this.svgDrawMap(svgWriter, roads, entry.getValue());
+            } catch (IOException | UncheckedIOException e) {
+                e.printStackTrace();
             }
+        });
+    }
+
+    private void svgDrawMap(SvgWriter svgWriter, String roads, DGPath path) {
+        svgWriter.header();
+        svgWriter.append(roads);
+
+        // on top of that, draw all junctions with a colour depending on their status in the optional path
+        Set<Junction> visited = (path != null ? new HashSet<>(path.getVisited()) : Collections.emptySet());
+        for (Junction junction: getVertices()) {
+            junction.svgDraw(svgWriter, visited.contains(junction) ? "yellowgreen" : "black");
+        }
 
-            svgWriter.println("</svg>");
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        // on top of that, highlight the path, if any has been provided
+        if (path != null) {
+            Junction from = null;
+            for (Junction neighbour: path.getVertices()) {
+                neighbour.svgDrawRoad(svgWriter, from, 1.25, "lime");
+                from = neighbour;
+            }
         }
+
+        svgWriter.footer();
     }
 
     /**
-     * draws all road segments starting from the junction with their default colour
+     * draws all road segments between the junction and neighbours with a higher index, with their default colour,
+     * which meet the level of detail
+     * a road in both directions with the same speed limit is drawn only once, without looking up the reverse road
      * @param svgWriter
+     * @param from
+     * @param outgoingSpeeds    the speed limit of the road from the junction to each neighbour, by neighbour index
+     * @param outgoingStamps    the index of the junction for which each entry of outgoingSpeeds has been recorded
      */
-    private void svgDrawRoads(PrintStream svgWriter, Junction from) {
+    private void svgDrawRoads(SvgWriter svgWriter, Junction from, int[] outgoingSpeeds, int[] outgoingStamps) {
+        // the neighbours and the edges are the keys and values of the same map, so they iterate in the same order
+        Iterator<Road> roads = this.getEdges(from).iterator();
         for (Junction neighbour : this.getNeighbours(from)) {
-            Road road = this.getEdge(from, neighbour);
-            String colour = (road.getMaxSpeed() >= 100 ? "darkorange" :
-                    road.getMaxSpeed() >= 80 ? "gold" : "lightskyblue");
-            double width = 0.2 + road.getMaxSpeed() * 0.008;
-            neighbour.svgDrawRoad(svgWriter, from, width, colour);
+            Road road = roads.next();
+            if (from.getIndex() > neighbour.getIndex()) continue;
+            outgoingSpeeds[neighbour.getIndex()] = road.getMaxSpeed();
+            outgoingStamps[neighbour.getIndex()] = from.getIndex();
+            this.svgDrawRoad(svgWriter, from, neighbour, road);
         }
+
+        // likewise, the predecessors and the incoming edges iterate in the same order
+        Iterator<Road> incomingRoads = this.getIncomingEdges(from).iterator();
+        for (Junction predecessor : this.getPredecessors(from)) {
+            Road road = incomingRoads.next();
+            if (predecessor.getIndex() < from.getIndex()) continue;
+            if (outgoingStamps[predecessor.getIndex()] == from.getIndex() &&
+                    outgoingSpeeds[predecessor.getIndex()] == road.getMaxSpeed()) continue;
+            this.svgDrawRoad(svgWriter, predecessor, from, road);
+        }
+    }
+
+    private void svgDrawRoad(SvgWriter svgWriter, Junction from, Junction to, Road road) {
+        if (road.getMaxSpeed() < this.svgMinSpeed ||
+                from.getDistance(to) * SVG_PIXELS_PER_KM < this.svgMinPixelLength) return;
+        String colour = (road.getMaxSpeed() >= 100 ? "darkorange" :
+                road.getMaxSpeed() >= 80 ? "gold" : "lightskyblue");
+        double width = 0.2 + road.getMaxSpeed() * 0.008;
+        to.svgDrawRoad(svgWriter, from, width, colour);
     }
 
     @Override
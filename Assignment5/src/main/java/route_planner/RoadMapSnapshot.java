@@ -0,0 +1,173 @@
+package route_planner;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compact binary format of a complete RoadMap, which loads much faster than importing the csv files,
+ * and reproduces exactly the same map, including the randomized lengths of the roads.
+ *
+ * Layout of the file (big-endian):
+ *      magic "RMAP", version
+ *      string table:   count, then per string its length in bytes and its UTF-8 bytes
+ *                      (the names of the junctions, followed by the distinct names of the roads)
+ *      junctions:      count, then per junction: name, x, y, population
+ *      roads:          count, then offsets of the roads of each junction (count+1 entries),
+ *                      then per road: to-junction, name, length, maxSpeed
+ * Junctions are stored in the order of their index, roads in the order of getNeighbours,
+ * such that the junctions of the loaded map keep their index and iterate their roads in the same order.
+ * The speed profiles of the roads are not part of the snapshot, like they are not part of the csv files.
+ */
+public class RoadMapSnapshot {
+
+    private static final int MAGIC = 0x524D4150;    // "RMAP"
+    private static final int VERSION = 1;
+    private static final int JUNCTION_BYTES = 2 * Integer.BYTES + 2 * Double.BYTES;
+    private static final int ROAD_BYTES = 3 * Integer.BYTES + Double.BYTES;
+
+    private RoadMapSnapshot() { }
+
+    /**
+     * writes the road map into a snapshot file
+     * @param roadMap
+     * @param file
+     * @throws IOException
+     */
+    public static void write(RoadMap roadMap, Path file) throws IOException {
+        int numJunctions = roadMap.getNumVertices();
+
+        // the string table holds every distinct name once
+        Map<String,Integer> stringIndices = new LinkedHashMap<>();
+        for (int v = 0; v < numJunctions; v++) {
+            stringIndices.putIfAbsent(roadMap.getVertexByIndex(v).getName(), stringIndices.size());
+        }
+        for (int v = 0; v < numJunctions; v++) {
+            for (Road road : roadMap.getEdges(roadMap.getVertexByIndex(v))) {
+                stringIndices.putIfAbsent(road.getName(), stringIndices.size());
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(stringIndices.size());
+            for (String string : stringIndices.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(numJunctions);
+            for (int v = 0; v < numJunctions; v++) {
+                Junction junction = roadMap.getVertexByIndex(v);
+                out.writeInt(stringIndices.get(junction.getName()));
+                out.writeDouble(junction.getLocationX());
+                out.writeDouble(junction.getLocationY());
+                out.writeInt(junction.getPopulation());
+            }
+
+            out.writeInt(roadMap.getNumEdges());
+            int offset = 0;
+            out.writeInt(offset);
+            for (int v = 0; v < numJunctions; v++) {
+                offset += roadMap.getNeighbours(roadMap.getVertexByIndex(v)).size();
+                out.writeInt(offset);
+            }
+            for (int v = 0; v < numJunctions; v++) {
+                Junction from = roadMap.getVertexByIndex(v);
+                for (Junction to : roadMap.getNeighbours(from)) {
+                    Road road = roadMap.getEdge(from, to);
+                    out.writeInt(to.getIndex());
+                    out.writeInt(stringIndices.get(road.getName()));
+                    out.writeDouble(road.getLength());
+                    out.writeInt(road.getMaxSpeed());
+                }
+            }
+        }
+    }
+
+    /**
+     * reads a road map from a snapshot file, through a memory mapped buffer
+     * @param file
+     * @return  the road map
+     * @throws IOException  also if the file does not hold a valid snapshot
+     */
+    public static RoadMap read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("No road map snapshot found in " + file);
+            }
+
+            String[] strings = new String[readCount(buffer, Integer.BYTES, file)];
+            byte[] bytes = new byte[64];
+            for (int s = 0; s < strings.length; s++) {
+                int length = readCount(buffer, 1, file);
+                if (length > bytes.length) bytes = new byte[Math.max(length, 2 * bytes.length)];
+                buffer.get(bytes, 0, length);
+                strings[s] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            RoadMap roadMap = new RoadMap();
+            Junction[] junctions = new Junction[readCount(buffer, JUNCTION_BYTES, file)];
+            for (int v = 0; v < junctions.length; v++) {
+                Junction junction = new Junction(strings[buffer.getInt()]);
+                junction.setLocationX(buffer.getDouble());
+                junction.setLocationY(buffer.getDouble());
+                junction.setPopulation(buffer.getInt());
+                junctions[v] = roadMap.addOrGetVertex(junction);
+            }
+
+            int numRoads = readCount(buffer, ROAD_BYTES, file);
+            int[] offsets = new int[junctions.length + 1];
+            for (int v = 0; v <= junctions.length; v++) {
+                offsets[v] = buffer.getInt();
+            }
+            if (offsets[junctions.length] != numRoads) {
+                throw new IOException("Inconsistent road count in snapshot " + file);
+            }
+            for (int v = 0; v < junctions.length; v++) {
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    Junction to = junctions[buffer.getInt()];
+                    String name = strings[buffer.getInt()];
+                    double length = buffer.getDouble();
+                    int maxSpeed = buffer.getInt();
+                    roadMap.addEdge(junctions[v], to, new Road(name, length, maxSpeed));
+                }
+            }
+            return roadMap;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt road map snapshot " + file, e);
+        }
+    }
+
+    /**
+     * reads a count of items from the buffer, before anything is allocated for them
+     * @param buffer
+     * @param itemBytes the minimum number of bytes that each item occupies in the remainder of the file
+     * @param file
+     * @return  the count
+     * @throws IOException  if the count is negative or more items than the remainder of the file can hold
+     */
+    private static int readCount(ByteBuffer buffer, int itemBytes, Path file) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / itemBytes) {
+            throw new IOException("Invalid count " + count + " in road map snapshot " + file);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,188 @@
+package route_planner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates synthetic road networks of any size in the csv format of the Junctions and Roads resource files,
+ * to be imported by RoadMap.importJunctions and RoadMap.importRoads.
+ *
+ * The junctions are placed on a jittered square grid with a spacing of SPACING km, and each junction is connected
+ * to its grid neighbours, such that the network is planar apart from the jitter:
+ *  -   every HIGHWAY_INTERVAL-th row and column carries a highway (A-road, 120 km/h) along its full length
+ *  -   every REGIONAL_INTERVAL-th row and column in between carries a regional road (N-road, 100 km/h)
+ *  -   all other grid neighbours are connected by a local road with probability LOCAL_ROAD_PROBABILITY,
+ *      at 80 or 50 km/h, and a single diagonal road crosses a grid cell with probability DIAGONAL_PROBABILITY
+ * This yields an average degree a little above three, like real road networks, and a connected core
+ * (the local roads are well above the percolation threshold of the square grid).
+ * The population of the junctions follows a log-normal distribution.
+ *
+ * Both files are written as a stream from the grid position of each junction, so the memory use does not
+ * depend on the size of the network. The same seed and size always produce the same files.
+ */
+public class RoadNetworkGenerator {
+
+    private static final long SPACING = 3000;       // grid spacing in metres
+    private static final double JITTER = 0.35;      // maximum displacement from the grid point, relative to SPACING
+    private static final int HIGHWAY_INTERVAL = 24;
+    private static final int REGIONAL_INTERVAL = 8;
+    private static final double LOCAL_ROAD_PROBABILITY = 0.7;
+    private static final double FAST_LOCAL_ROAD_PROBABILITY = 0.35;
+    private static final double DIAGONAL_PROBABILITY = 0.15;
+
+    private final long seed;
+
+    public RoadNetworkGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * generates a network and writes it into a junctions file and a roads file
+     * @param numJunctions
+     * @param junctionsFile
+     * @param roadsFile
+     * @return  the number of bi-directional road segments between two junctions
+     * @throws IOException
+     */
+    public int generate(int numJunctions, Path junctionsFile, Path roadsFile) throws IOException {
+        int width = (int) Math.ceil(Math.sqrt(numJunctions));
+        this.writeJunctions(numJunctions, width, junctionsFile);
+        return this.writeRoads(numJunctions, width, roadsFile);
+    }
+
+    private void writeJunctions(int numJunctions, int width, Path junctionsFile) throws IOException {
+        Random random = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(junctionsFile, StandardCharsets.UTF_8)) {
+            writer.write("Code;Naam;X;Y;Provincie;Inwoners;Oppervlakte;Inw/km2\n");
+            StringBuilder line = new StringBuilder();
+            long area = SPACING * SPACING / 1000000;
+            for (int j = 0; j < numJunctions; j++) {
+                long x = (j % width) * SPACING + (long) ((random.nextDouble() * 2 - 1) * JITTER * SPACING);
+                long y = (j / width) * SPACING + (long) ((random.nextDouble() * 2 - 1) * JITTER * SPACING);
+                int population = (int) Math.min(1000000, Math.exp(9.5 + 1.1 * random.nextGaussian()));
+                line.setLength(0);
+                line.append(j).append(';').append(junctionName(j)).append(';');
+                appendKilometres(line, x).append(';');
+                appendKilometres(line, y).append(";SYN;")
+                        .append(population).append(';').append(area).append(';').append(population / area).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    private int writeRoads(int numJunctions, int width, Path roadsFile) throws IOException {
+        Random random = new Random(seed + 1);
+        int height = (numJunctions + width - 1) / width;
+        int numSegments = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(roadsFile, StandardCharsets.UTF_8)) {
+            writer.write("name;speed limit;junctions;;\n");
+            StringBuilder line = new StringBuilder();
+
+            // the highways and regional roads along the rows and the columns of the grid
+            for (int row = 0; row < height; row++) {
+                int speed = trunkSpeed(row);
+                if (speed == 0) continue;
+                line.setLength(0);
+                line.append(speed == 120 ? "A" : "N").append(row).append(';').append(speed);
+                int numJunctionsInRow = Math.min(width, numJunctions - row * width);
+                for (int column = 0; column < numJunctionsInRow; column++) {
+                    line.append(';').append(junctionName(row * width + column));
+                }
+                writer.append(line).append(";;\n");
+                numSegments += numJunctionsInRow - 1;
+            }
+            for (int column = 0; column < width; column++) {
+                int speed = trunkSpeed(column);
+                if (speed == 0) continue;
+                line.setLength(0);
+                line.append(speed == 120 ? "A" : "N").append(height + column).append(';').append(speed);
+                int numJunctionsInColumn = 0;
+                for (int j = column; j < numJunctions; j += width) {
+                    line.append(';').append(junctionName(j));
+                    numJunctionsInColumn++;
+                }
+                writer.append(line).append(";;\n");
+                numSegments += numJunctionsInColumn - 1;
+            }
+
+            // the local roads between the remaining grid neighbours, and across the cells
+            for (int j = 0; j < numJunctions; j++) {
+                int row = j / width, column = j % width;
+                boolean hasRight = column + 1 < width && j + 1 < numJunctions;
+                boolean hasDown = j + width < numJunctions;
+                if (hasRight && trunkSpeed(row) == 0 && random.nextDouble() < LOCAL_ROAD_PROBABILITY) {
+                    this.writeLocalRoad(writer, line, random, row, j, j + 1);
+                    numSegments++;
+                }
+                if (hasDown && trunkSpeed(column) == 0 && random.nextDouble() < LOCAL_ROAD_PROBABILITY) {
+                    this.writeLocalRoad(writer, line, random, row, j, j + width);
+                    numSegments++;
+                }
+                if (hasRight && j + width + 1 < numJunctions && random.nextDouble() < DIAGONAL_PROBABILITY) {
+                    // one diagonal per cell, such that the roads do not cross
+                    if (random.nextBoolean()) {
+                        this.writeLocalRoad(writer, line, random, row, j, j + width + 1);
+                    } else {
+                        this.writeLocalRoad(writer, line, random, row, j + 1, j + width);
+                    }
+                    numSegments++;
+                }
+            }
+        }
+        return numSegments;
+    }
+
+    private void writeLocalRoad(BufferedWriter writer, StringBuilder line, Random random,
+                                int row, int from, int to) throws IOException {
+        int speed = (random.nextDouble() < FAST_LOCAL_ROAD_PROBABILITY ? 80 : 50);
+        line.setLength(0);
+        line.append('S').append(row).append(';').append(speed).append(';')
+                .append(junctionName(from)).append(';').append(junctionName(to)).append(";;\n");
+        writer.append(line);
+    }
+
+    // the speed limit of the highway or regional road along a row or column of the grid, 0 if there is none
+    private static int trunkSpeed(int rowOrColumn) {
+        if (rowOrColumn % HIGHWAY_INTERVAL == HIGHWAY_INTERVAL / 2) return 120;
+        if (rowOrColumn % REGIONAL_INTERVAL == REGIONAL_INTERVAL / 2) return 100;
+        return 0;
+    }
+
+    private static String junctionName(int j) {
+        return "J" + j;
+    }
+
+    // appends a distance in metres as kilometres with three decimals
+    private static StringBuilder appendKilometres(StringBuilder line, long metres) {
+        if (metres < 0) {
+            line.append('-');
+            metres = -metres;
+        }
+        long fraction = metres % 1000;
+        line.append(metres / 1000).append('.');
+        if (fraction < 100) line.append('0');
+        if (fraction < 10) line.append('0');
+        return line.append(fraction);
+    }
+
+    /**
+     * generates a network into the given folder
+     * @param args  number of junctions, optionally the seed (default 2022) and the folder (default the working directory)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int numJunctions = Integer.parseInt(args[0]);
+        long seed = (args.length > 1 ? Long.parseLong(args[1]) : 2022L);
+        Path folder = Paths.get(args.length > 2 ? args[2] : ".");
+        Path junctionsFile = folder.resolve("Junctions-" + numJunctions + ".csv");
+        Path roadsFile = folder.resolve("Roads-" + numJunctions + ".csv");
+        int numSegments = new RoadNetworkGenerator(seed).generate(numJunctions, junctionsFile, roadsFile);
+        System.out.printf("%d junctions and %d bi-directional road segments have been written into %s and %s\n",
+                numJunctions, numSegments, junctionsFile, roadsFile);
+    }
+}
@@ -0,0 +1,78 @@
+package route_planner;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The routes of a batch of route queries, in the order of the queries,
+ * together with the timing statistics of the batch
+ */
+public class RouteBatchResult {
+    private final List<RoadMap.DGPath> paths;   // null for queries without a route
+    private final int numSources;
+    private final long freezeNanos;             // time spent on preparing the frozen graph of the map
+    private final long elapsedNanos;            // wall clock time of all searches together
+    private final long totalSearchNanos;        // sum of the times of the individual searches
+    private final long maxSearchNanos;          // time of the slowest search
+
+    RouteBatchResult(List<RoadMap.DGPath> paths, int numSources, long freezeNanos,
+                     long elapsedNanos, long totalSearchNanos, long maxSearchNanos) {
+        this.paths = Collections.unmodifiableList(paths);
+        this.numSources = numSources;
+        this.freezeNanos = freezeNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.totalSearchNanos = totalSearchNanos;
+        this.maxSearchNanos = maxSearchNanos;
+    }
+
+    /**
+     * @return  the route of each query at the position of the query, null if no route exists
+     */
+    public List<RoadMap.DGPath> getPaths() {
+        return paths;
+    }
+
+    public RoadMap.DGPath getPath(int query) {
+        return paths.get(query);
+    }
+
+    public int getNumQueries() {
+        return paths.size();
+    }
+
+    /**
+     * @return  the number of distinct origins of the queries, which equals the number of searches
+     */
+    public int getNumSources() {
+        return numSources;
+    }
+
+    public int getNumFound() {
+        return (int) paths.stream().filter(p -> p != null).count();
+    }
+
+    public long getFreezeNanos() {
+        return freezeNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getTotalSearchNanos() {
+        return totalSearchNanos;
+    }
+
+    public long getMaxSearchNanos() {
+        return maxSearchNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d queries from %d sources, %d routes found: freeze %.3f ms, searches %.3f ms " +
+                        "(total %.3f ms, mean %.3f ms, max %.3f ms per source)",
+                getNumQueries(), numSources, getNumFound(), freezeNanos / 1E6, elapsedNanos / 1E6,
+                totalSearchNanos / 1E6, (numSources > 0 ? totalSearchNanos / 1E6 / numSources : 0.0),
+                maxSearchNanos / 1E6);
+    }
+}
@@ -0,0 +1,242 @@
+package route_planner;
+
+import java.util.*;
+
+/**
+ * A bounded cache of shortest routes in a RoadMap, keyed by start, target and metric.
+ * The least recently used route is evicted when the cache is full.
+ *
+ * The cache listens to changes of the roads in the map and invalidates exactly those routes that may have changed:
+ *  -   a road that gets heavier (longer or slower) invalidates the cached routes which use the road
+ *  -   a road that gets lighter invalidates the cached routes which use the road,
+ *      and the routes for which a bypass along that road could possibly be lighter, based on the
+ *      straight-line estimates of RoadMap.estimateWeight from the start to the road and from the road to the target
+ *  -   a new road is handled as a road that gets lighter, and also invalidates the cached absence of routes
+ *      between junctions that it connects
+ * The estimates are only lower bounds while no road is lighter than the straight line between its junctions.
+ * Once a road has been changed below that bound, any road that gets lighter invalidates all routes of that metric.
+ *
+ * Routes are returned as shared instances and should not be modified by the caller.
+ * The cache may be used from multiple threads.
+ */
+public class RouteCache implements RoadChangeListener {
+
+    private final RoadMap roadMap;
+    private final int capacity;
+    private final LinkedHashMap<RouteKey,CachedRoute> routes;
+    private final Map<Road,Set<RouteKey>> routesByRoad = new IdentityHashMap<>();
+    private long version = 0;       // counts the changes of roads, to detect stale results of concurrent searches
+    // the metrics for which a road has become lighter than the straight-line estimate between its junctions
+    private final Set<RouteMetric> unboundedMetrics = EnumSet.noneOf(RouteMetric.class);
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    private static class RouteKey {
+        private final String fromId;
+        private final String toId;
+        private final RouteMetric metric;
+
+        private RouteKey(String fromId, String toId, RouteMetric metric) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.metric = metric;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RouteKey routeKey = (RouteKey) o;
+            return fromId.equals(routeKey.fromId) && toId.equals(routeKey.toId) && metric == routeKey.metric;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fromId, toId, metric);
+        }
+    }
+
+    private static class CachedRoute {
+        private final Junction from;
+        private final Junction to;
+        private final RoadMap.DGPath path;      // null if no route exists
+        private final List<Road> roads = new ArrayList<>();
+
+        private CachedRoute(Junction from, Junction to, RoadMap.DGPath path) {
+            this.from = from;
+            this.to = to;
+            this.path = path;
+        }
+    }
+
+    /**
+     * creates a cache for the routes in the map, which will be kept up to date with changes of the roads in the map
+     * @param roadMap
+     * @param capacity  the maximum number of cached routes
+     */
+    public RouteCache(RoadMap roadMap, int capacity) {
+        this.roadMap = roadMap;
+        this.capacity = capacity;
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey,CachedRoute> eldest) {
+                if (size() <= RouteCache.this.capacity) return false;
+                evictions++;
+                unindex(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        roadMap.addRoadChangeListener(this);
+    }
+
+    /**
+     * provides the shortest route from start to target according to the metric,
+     * from the cache or else calculated by dijkstraShortestPath of the map
+     * @param startId
+     * @param targetId
+     * @param metric
+     * @return  the shortest path from start to target
+     *          returns null if either start or target cannot be matched with a junction in the map
+     *                          or no path can be found from start to target
+     */
+    public RoadMap.DGPath shortestPath(String startId, String targetId, RouteMetric metric) {
+        Junction from = roadMap.getVertexById(startId);
+        Junction to = roadMap.getVertexById(targetId);
+        if (from == null || to == null) return null;
+
+        RouteKey key = new RouteKey(startId, targetId, metric);
+        long searchVersion;
+        synchronized (this) {
+            CachedRoute cached = routes.get(key);
+            if (cached != null) {
+                hits++;
+                return cached.path;
+            }
+            misses++;
+            searchVersion = version;
+        }
+
+        // search outside the lock, such that other threads can use the cache meanwhile
+        RoadMap.DGPath path = roadMap.dijkstraShortestPath(startId, targetId, metric.getWeightMapper());
+
+        synchronized (this) {
+            // the route may have become outdated by a change of a road during the search
+            if (searchVersion == version && !routes.containsKey(key)) {
+                CachedRoute route = new CachedRoute(from, to, path);
+                if (path != null) {
+                    Junction previous = null;
+                    for (Junction junction : path.getVertices()) {
+                        if (previous != null) route.roads.add(roadMap.getEdge(previous, junction));
+                        previous = junction;
+                    }
+                }
+                for (Road road : route.roads) {
+                    routesByRoad.computeIfAbsent(road, r -> new HashSet<>()).add(key);
+                }
+                routes.put(key, route);
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public synchronized void roadChanged(Junction from, Junction to, Road road, Road previous) {
+        version++;
+        for (RouteMetric metric : RouteMetric.values()) {
+            double weight = metric.getWeightMapper().apply(road);
+            double previousWeight = metric.getWeightMapper().apply(previous);
+            if (weight == previousWeight) continue;
+            if (weight < roadMap.estimateWeight(from, to, metric)) unboundedMetrics.add(metric);
+
+            // the routes along the road are affected in either case
+            Set<RouteKey> keysAlongRoad = routesByRoad.getOrDefault(road, Collections.emptySet());
+            List<RouteKey> invalidKeys = new ArrayList<>();
+            for (RouteKey key : keysAlongRoad) {
+                if (key.metric == metric) invalidKeys.add(key);
+            }
+
+            if (weight < previousWeight) {
+                // other routes are affected if a bypass along the road could be lighter
+                for (Map.Entry<RouteKey,CachedRoute> entry : routes.entrySet()) {
+                    RouteKey key = entry.getKey();
+                    CachedRoute route = entry.getValue();
+                    if (key.metric != metric || keysAlongRoad.contains(key)) continue;
+                    if (route.path == null) {
+                        // only a new road can connect junctions without a route
+                        if (previousWeight == Double.POSITIVE_INFINITY &&
+                                roadMap.mayReach(route.from.getId(), route.to.getId())) invalidKeys.add(key);
+                        continue;
+                    }
+                    if (unboundedMetrics.contains(metric)) {
+                        // the straight-line estimates may exceed the weights of routes along the road
+                        invalidKeys.add(key);
+                        continue;
+                    }
+                    double routeWeight = route.path.getTotalWeight();
+                    double bypassEstimate = roadMap.estimateWeight(route.from, from, metric) + weight +
+                            roadMap.estimateWeight(to, route.to, metric);
+                    if (bypassEstimate < routeWeight) invalidKeys.add(key);
+                }
+            }
+
+            for (RouteKey key : invalidKeys) {
+                CachedRoute route = routes.remove(key);
+                if (route != null) {
+                    unindex(key, route);
+                    invalidations++;
+                }
+            }
+        }
+    }
+
+    private void unindex(RouteKey key, CachedRoute route) {
+        for (Road road : route.roads) {
+            Set<RouteKey> keys = routesByRoad.get(road);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                routesByRoad.remove(road);
+            }
+        }
+    }
+
+    /**
+     * removes all routes from the cache, and stops listening to changes of the roads in the map
+     */
+    public synchronized void close() {
+        roadMap.removeRoadChangeListener(this);
+        routes.clear();
+        routesByRoad.clear();
+    }
+
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RouteCache size=%d/%d hits=%d misses=%d evictions=%d invalidations=%d",
+                routes.size(), capacity, hits, misses, evictions, invalidations);
+    }
+}
@@ -0,0 +1,24 @@
+package route_planner;
+
+import java.util.function.Function;
+
+/**
+ * identifies the standard optimisation criteria of routes in a RoadMap
+ */
+public enum RouteMetric {
+    DISTANCE(Road::getLength),                                      // total length in km
+    TRAVEL_TIME(road -> road.getLength() / road.getMaxSpeed());     // total travel time in hours
+
+    private final Function<Road,Double> weightMapper;
+
+    RouteMetric(Function<Road,Double> weightMapper) {
+        this.weightMapper = weightMapper;
+    }
+
+    /**
+     * @return  the function which calculates the weight of a road segment according to this metric
+     */
+    public Function<Road,Double> getWeightMapper() {
+        return weightMapper;
+    }
+}
@@ -1,5 +1,18 @@
 package route_planner;
 
+import graphs.ContractionHierarchy;
+import graphs.LandmarkIndex;
+import graphs.ShortestPathTree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class RoutePlannerMain {
 
     public static void main(String[] args) {
@@ -23,12 +36,74 @@ public class RoutePlannerMain {
         // provide a map into the target classpath
         roadMap.svgDrawMap("RoadmapNL.svg", null);
 
+        // save the imported map into a binary snapshot, which loads much faster than the csv files
+        try {
+            Path snapshot = Paths.get(new File(RoutePlannerMain.class.getResource("/").getPath()).getAbsolutePath(),
+                    "RoadmapNL.snapshot");
+            RoadMapSnapshot.write(roadMap, snapshot);
+            long started = System.nanoTime();
+            RoadMap loaded = RoadMapSnapshot.read(snapshot);
+            System.out.printf("%d junctions and %d one-way roads have been loaded from the snapshot in %.3f ms.\n",
+                    loaded.getNumVertices(), loaded.getNumEdges(), (System.nanoTime() - started) / 1E6);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
         // Run various types of searches
         final String FROM_ID = "Amsterdam";
         //final String TO_ID = "Staphorst";
         final String TO_ID = "Meppel";
         doPathSearches(roadMap, FROM_ID, TO_ID);
 
+        // preprocess the map into a contraction hierarchy for fast queries
+        ContractionHierarchy<Junction, Road> hierarchy =
+                new ContractionHierarchy<>(roadMap, RouteMetric.TRAVEL_TIME.getWeightMapper());
+        System.out.printf("Contraction hierarchy has been built with %d shortcuts.\n", hierarchy.getNumShortcuts());
+        RoadMap.DGPath chPath = hierarchy.shortestPath(FROM_ID, TO_ID);
+        System.out.println("Contraction-Hierarchy-Fastest-Route: " + chPath);
+
+        // find the service area within half an hour from Amsterdam
+        System.out.println("Within-30-minutes-of-Amsterdam: " +
+                roadMap.reachableWithin(FROM_ID, 0.5, RouteMetric.TRAVEL_TIME.getWeightMapper()).keySet());
+
+        // route a batch of queries from a few origins at once
+        List<RouteQuery> queries = new ArrayList<>();
+        for (String toId : List.of(TO_ID, "Staphorst", "Weesp", "Zwolle")) {
+            queries.add(new RouteQuery(FROM_ID, toId));
+            queries.add(new RouteQuery("Meppel", toId));
+        }
+        System.out.println("Route-batch: " + roadMap.routeBatch(queries, RouteMetric.TRAVEL_TIME.getWeightMapper()));
+
+        // precalculate travel times from and towards a few landmarks for goal-directed searches
+        LandmarkIndex landmarks = LandmarkIndex.build(roadMap,
+                road -> road.getLength() / road.getMaxSpeed(), 8);
+
+        // trade off length against travel time
+        System.out.println("Pareto-routes: " + roadMap.paretoRoutes(FROM_ID, TO_ID, 32));
+
+        // the fastest route at night and in the morning rush hour, when the highways slow down to 40% of their limits
+        SpeedProfile rushHours = SpeedProfile.rushHours(0.4f);
+        for (Junction junction : roadMap.getVertices()) {
+            for (Road road : roadMap.getEdges(junction)) {
+                if (road.getMaxSpeed() >= 100) road.setSpeedProfile(rushHours);
+            }
+        }
+        System.out.println("Time-dependent-route-at-3:00: " + roadMap.timeDependentRoute(FROM_ID, TO_ID, 3.0));
+        System.out.println("Time-dependent-route-at-8:00: " + roadMap.timeDependentRoute(FROM_ID, TO_ID, 8.0));
+
+        // compare the work done by the shortest path algorithms for the fastest route
+        roadMap.setSearchMetricsSink(metrics -> System.out.println("Search-metrics " + metrics));
+        roadMap.dijkstraShortestPath(FROM_ID, TO_ID, RouteMetric.TRAVEL_TIME.getWeightMapper());
+        roadMap.aStarShortestPath(FROM_ID, TO_ID, RouteMetric.TRAVEL_TIME);
+        roadMap.altShortestPath(FROM_ID, TO_ID, RouteMetric.TRAVEL_TIME.getWeightMapper(), landmarks);
+        roadMap.bidirectionalDijkstraShortestPath(FROM_ID, TO_ID, RouteMetric.TRAVEL_TIME.getWeightMapper());
+        roadMap.setSearchMetricsSink(null);
+
+        // keep the fastest routes from Amsterdam up to date with changes of the roads
+        ShortestPathTree<Junction, Road> fastestTree =
+                new ShortestPathTree<>(roadMap, FROM_ID, RouteMetric.TRAVEL_TIME.getWeightMapper());
+        roadMap.addRoadChangeListener((from, to, road, previous) -> fastestTree.edgeChanged(from, to));
+
         // now we have an accident between Diemen and Weesp...
         roadMap.getEdge("Diemen", "Weesp").setMaxSpeed(5);
 
@@ -38,24 +113,41 @@ public class RoutePlannerMain {
                 );
         System.out.println("Dijkstra-accident-Weesp: " + path);
         roadMap.svgDrawMap(String.format("DSPACC-%s-%s.svg", FROM_ID, TO_ID), path);
+
+        // the landmark lower bounds remain valid for the increased travel time
+        path = roadMap.altShortestPath(FROM_ID, TO_ID, road -> (road.getLength() / road.getMaxSpeed()), landmarks);
+        System.out.println("ALT-accident-Weesp: " + path);
+
+        // rank a few alternatives for the fastest route
+        for (RoadMap.DGPath alternative :
+                roadMap.kShortestPaths(FROM_ID, TO_ID, 3, RouteMetric.TRAVEL_TIME.getWeightMapper())) {
+            System.out.println("Alternative-accident-Weesp: " + alternative);
+        }
+
+        // the tree has been repaired incrementally after the accident
+        path = fastestTree.getPath(TO_ID);
+        System.out.printf("Shortest-path-tree-accident-Weesp (%d junctions repaired): %s\n",
+                fastestTree.getNumRepairedVertices(), path);
     }
 
     private static void doPathSearches(RoadMap roadMap, String fromId, String toId) {
         System.out.printf("\nResults from path searches from %s to %s:\n", fromId, toId);
         RoadMap.DGPath path;
+        // the images of the paths are rendered together at the end
+        Map<String,RoadMap.DGPath> svgPaths = new LinkedHashMap<>();
 
         // find the routes by depth-first-search
         path = roadMap.depthFirstSearch(fromId, toId);
         System.out.println(roadMap.depthFirstSearch(fromId, toId));
         System.out.println("Depth-first-search: " + path);
-        roadMap.svgDrawMap(String.format("DFS-%s-%s.svg", fromId, toId), path);
+        svgPaths.put(String.format("DFS-%s-%s.svg", fromId, toId), path);
         path = roadMap.depthFirstSearch(toId, fromId);
         System.out.println("Depth-first-search return: " + path);
 
         // find the routes by breadth-first-search with minimum number of hops
         path = roadMap.breadthFirstSearch(fromId, toId);
         System.out.println("Breadth-first-search: " + path);
-        roadMap.svgDrawMap(String.format("BFS-%s-%s.svg", fromId, toId), path);
+        svgPaths.put(String.format("BFS-%s-%s.svg", fromId, toId), path);
         path = roadMap.breadthFirstSearch(toId, fromId);
         System.out.println("Breadth-first-search return: " + path);
 
@@ -63,14 +155,29 @@ public class RoutePlannerMain {
         path = roadMap.dijkstraShortestPath(fromId, toId, Road::getLength);
         System.out.println("Dijkstra-Shortest-Path: " + path);
 
-        roadMap.svgDrawMap(String.format("DSP-%s-%s.svg", fromId, toId), path);
+        svgPaths.put(String.format("DSP-%s-%s.svg", fromId, toId), path);
         path = roadMap.dijkstraShortestPath(toId, fromId, Road::getLength);
         System.out.println("Dijkstra-Shortest-Path return: " + path);
 
         // find the routes by dijkstra-Shortest-Path with minimum total travel time
         path = roadMap.dijkstraShortestPath(fromId, toId, road -> (road.getLength() / road.getMaxSpeed()));
         System.out.println("Dijkstra-Fastest-Route: " + path);
-        roadMap.svgDrawMap(String.format("DFR-%s-%s.svg", fromId, toId), path);
+        svgPaths.put(String.format("DFR-%s-%s.svg", fromId, toId), path);
+
+        // find the same routes by A* search directed towards the target
+        path = roadMap.aStarShortestPath(fromId, toId, RouteMetric.DISTANCE);
+        System.out.println("A*-Shortest-Path: " + path);
+        svgPaths.put(String.format("ASP-%s-%s.svg", fromId, toId), path);
+        path = roadMap.aStarShortestPath(fromId, toId, RouteMetric.TRAVEL_TIME);
+        System.out.println("A*-Fastest-Route: " + path);
+        svgPaths.put(String.format("AFR-%s-%s.svg", fromId, toId), path);
+
+        // find the routes by searching from both ends simultaneously
+        path = roadMap.bidirectionalDijkstraShortestPath(fromId, toId, Road::getLength);
+        System.out.println("Bidirectional-Dijkstra-Shortest-Path: " + path);
+        svgPaths.put(String.format("BDSP-%s-%s.svg", fromId, toId), path);
+
+        roadMap.svgDrawMaps(svgPaths);
 
         System.out.println();
     }
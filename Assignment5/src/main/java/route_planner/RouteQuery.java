@@ -0,0 +1,27 @@
+package route_planner;
+
+/**
+ * A request for the shortest route between two junctions, identified by their names
+ */
+public class RouteQuery {
+    private final String fromId;
+    private final String toId;
+
+    public RouteQuery(String fromId, String toId) {
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    public String getFromId() {
+        return fromId;
+    }
+
+    public String getToId() {
+        return toId;
+    }
+
+    @Override
+    public String toString() {
+        return fromId + " -> " + toId;
+    }
+}
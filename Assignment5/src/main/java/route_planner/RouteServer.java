@@ -0,0 +1,322 @@
+package route_planner;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import graphs.FrozenGraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A small embedded HTTP server on localhost, which answers route queries on a road map with JSON:
+ *      GET /route?from=Amsterdam&to=Meppel[&metric=TRAVEL_TIME]    the shortest route between two junctions
+ *      GET /isochrone?from=Amsterdam&budget=0.5[&metric=...]       the junctions within the budget from a junction
+ *      GET /matrix?sources=A,B&targets=C,D[&metric=...]            the weights of the shortest routes between all pairs
+ *                                                                  (at most MAX_MATRIX_PAIRS pairs)
+ *      GET /stats                                                  latency percentiles per endpoint
+ * The metric defaults to TRAVEL_TIME (in hours); DISTANCE is in km.
+ *
+ * The queries run on immutable frozen snapshots of the map, one per metric, which are published together
+ * through a volatile reference. Concurrent requests therefore never lock; publish() replaces the snapshots
+ * after changes of the map, while requests in progress complete on the snapshots they started with.
+ *
+ * Each request is handled on a virtual thread if the JVM supports them (Java 21 or later),
+ * and on a thread of a cached thread pool otherwise.
+ */
+public class RouteServer implements Closeable {
+
+    private static final String[] ENDPOINTS = { "/route", "/isochrone", "/matrix" };
+    private static final int LATENCY_SAMPLES = 8192;
+    // bounds the work of a single matrix request, which shares the common pool with all other requests
+    private static final int MAX_MATRIX_PAIRS = 10000;
+
+    private final RoadMap roadMap;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final Map<String,LatencyStats> latencies = new LinkedHashMap<>();
+    private volatile Map<RouteMetric,FrozenGraph<Junction,Road>> snapshots;
+
+    // signals a request that cannot be answered, with the http status to be returned
+    private static class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * creates a server for the road map on localhost, which starts listening by start()
+     * @param roadMap
+     * @param port      0 to let the system pick a free port
+     * @throws IOException
+     */
+    public RouteServer(RoadMap roadMap, int port) throws IOException {
+        this.roadMap = roadMap;
+        this.publish();
+        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = newRequestExecutor();
+        this.httpServer.setExecutor(this.executor);
+        for (String endpoint : ENDPOINTS) {
+            this.latencies.put(endpoint, new LatencyStats(LATENCY_SAMPLES));
+            this.httpServer.createContext(endpoint, this::handle);
+        }
+        this.httpServer.createContext("/stats", this::handle);
+    }
+
+    // a virtual thread per request if available, looked up reflectively such that the code also runs on Java 17
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * freezes the current state of the road map into new snapshots, which are used by all subsequent requests
+     */
+    public void publish() {
+        Map<RouteMetric,FrozenGraph<Junction,Road>> newSnapshots = new EnumMap<>(RouteMetric.class);
+        for (RouteMetric metric : RouteMetric.values()) {
+            newSnapshots.put(metric, this.roadMap.freeze(metric.getWeightMapper()::apply));
+        }
+        this.snapshots = Collections.unmodifiableMap(newSnapshots);
+    }
+
+    public void start() {
+        this.httpServer.start();
+    }
+
+    public int getPort() {
+        return this.httpServer.getAddress().getPort();
+    }
+
+    /**
+     * stops the server, after waiting at most a second for requests in progress
+     */
+    @Override
+    public void close() {
+        this.httpServer.stop(1);
+        this.executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        String endpoint = exchange.getHttpContext().getPath();
+        int status = 200;
+        String body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                throw new RequestException(405, "Only GET requests are supported");
+            }
+            Map<String,String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            switch (endpoint) {
+                case "/route": body = this.route(parameters); break;
+                case "/isochrone": body = this.isochrone(parameters); break;
+                case "/matrix": body = this.matrix(parameters); break;
+                default: body = this.stats();
+            }
+        } catch (RequestException e) {
+            status = e.status;
+            body = "{\"error\":" + jsonString(e.getMessage()) + "}";
+        } catch (RuntimeException e) {
+            status = 500;
+            body = "{\"error\":" + jsonString(String.valueOf(e)) + "}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        LatencyStats stats = this.latencies.get(endpoint);
+        if (stats != null) stats.record(System.nanoTime() - startTime);
+    }
+
+    private String route(Map<String,String> parameters) {
+        FrozenGraph<Junction,Road> snapshot = this.snapshot(parameters);
+        String fromId = knownJunction(snapshot, parameters, "from");
+        String toId = knownJunction(snapshot, parameters, "to");
+        RoadMap.DGPath path = snapshot.dijkstraShortestPath(fromId, toId, false);
+        if (path == null) throw new RequestException(404, "No route from " + fromId + " to " + toId);
+
+        StringBuilder json = new StringBuilder("{\"from\":").append(jsonString(fromId))
+                .append(",\"to\":").append(jsonString(toId))
+                .append(",\"weight\":").append(jsonNumber(path.getTotalWeight()))
+                .append(",\"junctions\":[");
+        String separator = "";
+        for (Junction junction : path.getVertices()) {
+            json.append(separator).append(jsonString(junction.getId()));
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    private String isochrone(Map<String,String> parameters) {
+        FrozenGraph<Junction,Road> snapshot = this.snapshot(parameters);
+        String fromId = knownJunction(snapshot, parameters, "from");
+        double budget = parseDouble(parameters, "budget");
+        Map<Junction,Double> reachable = snapshot.reachableWithin(fromId, budget);
+
+        StringBuilder json = new StringBuilder("{\"from\":").append(jsonString(fromId))
+                .append(",\"budget\":").append(jsonNumber(budget))
+                .append(",\"junctions\":[");
+        String separator = "";
+        for (Map.Entry<Junction,Double> entry : reachable.entrySet()) {
+            json.append(separator).append("{\"id\":").append(jsonString(entry.getKey().getId()))
+                    .append(",\"weight\":").append(jsonNumber(entry.getValue())).append("}");
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    private String matrix(Map<String,String> parameters) {
+        FrozenGraph<Junction,Road> snapshot = this.snapshot(parameters);
+        List<String> sourceIds = parseList(parameters, "sources");
+        List<String> targetIds = parseList(parameters, "targets");
+        if ((long) sourceIds.size() * targetIds.size() > MAX_MATRIX_PAIRS) {
+            throw new RequestException(400, "A matrix may have at most " + MAX_MATRIX_PAIRS + " pairs of junctions");
+        }
+        for (String id : sourceIds) knownJunction(snapshot, id);
+        for (String id : targetIds) knownJunction(snapshot, id);
+        double[][] distances = snapshot.distanceMatrix(sourceIds, targetIds);
+
+        StringBuilder json = new StringBuilder("{\"sources\":").append(jsonStrings(sourceIds))
+                .append(",\"targets\":").append(jsonStrings(targetIds))
+                .append(",\"weights\":[");
+        for (int s = 0; s < distances.length; s++) {
+            json.append(s > 0 ? ",[" : "[");
+            for (int t = 0; t < distances[s].length; t++) {
+                json.append(t > 0 ? "," : "").append(jsonNumber(distances[s][t]));
+            }
+            json.append("]");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * @return  the number of requests, and the 50th, 90th and 99th percentile and maximum of their latencies in ms
+     *          per endpoint, as json
+     */
+    public String stats() {
+        StringBuilder json = new StringBuilder("{");
+        String separator = "";
+        for (Map.Entry<String,LatencyStats> entry : this.latencies.entrySet()) {
+            LatencyStats stats = entry.getValue();
+            long[] percentiles = stats.getPercentiles(50.0, 90.0, 99.0);
+            json.append(separator).append(jsonString(entry.getKey()))
+                    .append(":{\"count\":").append(stats.getCount())
+                    .append(",\"p50Ms\":").append(jsonNumber(percentiles[0] / 1E6))
+                    .append(",\"p90Ms\":").append(jsonNumber(percentiles[1] / 1E6))
+                    .append(",\"p99Ms\":").append(jsonNumber(percentiles[2] / 1E6))
+                    .append(",\"maxMs\":").append(jsonNumber(stats.getMaxNanos() / 1E6)).append("}");
+            separator = ",";
+        }
+        return json.append("}").toString();
+    }
+
+    private FrozenGraph<Junction,Road> snapshot(Map<String,String> parameters) {
+        String metric = parameters.getOrDefault("metric", RouteMetric.TRAVEL_TIME.name());
+        try {
+            return this.snapshots.get(RouteMetric.valueOf(metric.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Unknown metric " + metric);
+        }
+    }
+
+    private static Map<String,String> parseQuery(String rawQuery) {
+        Map<String,String> parameters = new HashMap<>();
+        if (rawQuery == null) return parameters;
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals < 0) continue;
+            parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String requireParameter(Map<String,String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isBlank()) throw new RequestException(400, "Missing parameter " + name);
+        return value.trim();
+    }
+
+    private static String knownJunction(FrozenGraph<Junction,Road> snapshot, Map<String,String> parameters,
+                                        String name) {
+        return knownJunction(snapshot, requireParameter(parameters, name));
+    }
+
+    private static String knownJunction(FrozenGraph<Junction,Road> snapshot, String id) {
+        if (snapshot.indexOf(id) < 0) throw new RequestException(404, "Unknown junction " + id);
+        return id;
+    }
+
+    private static double parseDouble(Map<String,String> parameters, String name) {
+        String value = requireParameter(parameters, name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Invalid number " + value + " for parameter " + name);
+        }
+    }
+
+    private static List<String> parseList(Map<String,String> parameters, String name) {
+        List<String> values = new ArrayList<>();
+        for (String value : requireParameter(parameters, name).split(",")) {
+            values.add(value.trim());
+        }
+        return values;
+    }
+
+    private static String jsonNumber(double value) {
+        return (Double.isFinite(value) ? Double.toString(value) : "null");
+    }
+
+    private static String jsonStrings(List<String> values) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            json.append(i > 0 ? "," : "").append(jsonString(values.get(i)));
+        }
+        return json.append("]").toString();
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < ' ') {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * serves the road map of the csv resources on localhost
+     * @param args  optionally the port, 8080 by default
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        RoadMap.reSeedRandomizer(20211220L);
+        RoadMap roadMap = new RoadMap("Junctions.csv", "Roads.csv");
+        RouteServer server = new RouteServer(roadMap, args.length > 0 ? Integer.parseInt(args[0]) : 8080);
+        server.start();
+        System.out.printf("Serving routes on http://localhost:%d/route?from=Amsterdam&to=Meppel\n", server.getPort());
+    }
+}
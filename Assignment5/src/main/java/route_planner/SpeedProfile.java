@@ -0,0 +1,146 @@
+package route_planner;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A daily pattern of the driving speed on a road, relative to its speed limit.
+ *
+ * The day is divided into NUM_SLOTS slots of 15 minutes. The profile holds the speed factor at the start of each slot,
+ * and the speed changes linearly between the starts of two consecutive slots (and from the last slot to midnight,
+ * towards the factor of the first slot). The profile repeats every day.
+ *
+ * The travel time of a road is found by integrating the speed over time until its length has been covered,
+ * such that a later departure never arrives earlier (the FIFO property), whatever the pattern is.
+ *
+ * Profiles are immutable and interned by of(): roads with the same pattern share a single instance
+ * with a single primitive array of factors.
+ */
+public class SpeedProfile {
+
+    public static final int NUM_SLOTS = 96;
+    public static final double SLOT_HOURS = 24.0 / NUM_SLOTS;
+    private static final double MIN_FACTOR = 0.01;
+
+    private static final Map<SpeedProfile,SpeedProfile> interned = new ConcurrentHashMap<>();
+
+    private final float[] factors;
+
+    private SpeedProfile(float[] factors) {
+        this.factors = factors;
+    }
+
+    /**
+     * finds or creates the profile of the given speed factors
+     * @param factors   the speed at the start of each slot, as a fraction of the speed limit,
+     *                  between MIN_FACTOR and 1.0 (some traffic may drive faster than the limit, but routes should not)
+     * @return  the shared instance of the profile
+     */
+    public static SpeedProfile of(float[] factors) {
+        if (factors.length != NUM_SLOTS) {
+            throw new IllegalArgumentException("A speed profile needs " + NUM_SLOTS + " factors, not " + factors.length);
+        }
+        for (float factor : factors) {
+            if (!(factor >= MIN_FACTOR && factor <= 1.0f)) {
+                throw new IllegalArgumentException("Invalid speed factor " + factor);
+            }
+        }
+        SpeedProfile profile = new SpeedProfile(factors.clone());
+        SpeedProfile existing = interned.putIfAbsent(profile, profile);
+        return (existing != null ? existing : profile);
+    }
+
+    /**
+     * creates a profile of a commuter road, which slows down to peakFactor of its speed limit
+     * around 8:00 in the morning and 17:00 in the afternoon, with a gradual build-up and release of an hour
+     * @param peakFactor
+     * @return  the shared instance of the profile
+     */
+    public static SpeedProfile rushHours(float peakFactor) {
+        float[] factors = new float[NUM_SLOTS];
+        for (int slot = 0; slot < NUM_SLOTS; slot++) {
+            double hour = slot * SLOT_HOURS;
+            double congestion = Math.max(rushHourCongestion(hour, 7.5, 8.5), rushHourCongestion(hour, 16.5, 17.5));
+            factors[slot] = (float) (1.0 - congestion * (1.0 - peakFactor));
+        }
+        return of(factors);
+    }
+
+    // 1.0 between from and until, 0.0 more than an hour away from that, linear in between
+    private static double rushHourCongestion(double hour, double from, double until) {
+        if (hour < from) return Math.max(0.0, 1.0 - (from - hour));
+        if (hour > until) return Math.max(0.0, 1.0 - (hour - until));
+        return 1.0;
+    }
+
+    /**
+     * @param time  in hours since midnight (of any day)
+     * @return  the speed at the given time, as a fraction of the speed limit
+     */
+    public double getFactor(double time) {
+        double timeOfDay = timeOfDay(time);
+        int slot = Math.min((int) (timeOfDay / SLOT_HOURS), NUM_SLOTS - 1);
+        double fraction = (timeOfDay - slot * SLOT_HOURS) / SLOT_HOURS;
+        return factors[slot] + fraction * (factors[(slot + 1) % NUM_SLOTS] - factors[slot]);
+    }
+
+    /**
+     * calculates the time to cover a distance at the speed of the profile
+     * @param length        in km
+     * @param maxSpeed      the speed limit in km/h
+     * @param departureTime in hours since midnight (of any day)
+     * @return  the travel time in hours,
+     *          infinity if the road cannot be driven (no speed limit, an infinite length or an undefined time)
+     */
+    public double travelTime(double length, double maxSpeed, double departureTime) {
+        if (!(maxSpeed > 0.0) || !Double.isFinite(length) || !Double.isFinite(departureTime)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double remaining = length;
+        double elapsed = 0.0;
+        double timeOfDay = timeOfDay(departureTime);
+        while (true) {
+            int slot = Math.min((int) (timeOfDay / SLOT_HOURS), NUM_SLOTS - 1);
+            double slotEnd = (slot + 1) * SLOT_HOURS;
+            // the speed v(t) = speed + acceleration * t for t from 0 until the end of the slot
+            double speed = maxSpeed * this.getFactor(timeOfDay);
+            double acceleration = maxSpeed * (factors[(slot + 1) % NUM_SLOTS] - factors[slot]) / SLOT_HOURS;
+            double duration = slotEnd - timeOfDay;
+            double distance = speed * duration + acceleration * duration * duration / 2;
+            if (distance >= remaining) {
+                // solve speed * t + acceleration * t^2 / 2 == remaining,
+                // in the form that is numerically stable for any sign of the acceleration
+                double discriminant = Math.max(0.0, speed * speed + 2 * acceleration * remaining);
+                return elapsed + 2 * remaining / (speed + Math.sqrt(discriminant));
+            }
+            remaining -= distance;
+            elapsed += duration;
+            timeOfDay = (slot + 1 < NUM_SLOTS ? slotEnd : 0.0);
+        }
+    }
+
+    private static double timeOfDay(double time) {
+        double timeOfDay = time % 24.0;
+        return (timeOfDay < 0 ? timeOfDay + 24.0 : timeOfDay);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SpeedProfile)) return false;
+        return Arrays.equals(factors, ((SpeedProfile) o).factors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(factors);
+    }
+
+    @Override
+    public String toString() {
+        float min = 1.0f;
+        for (float factor : factors) min = Math.min(min, factor);
+        return "SpeedProfile(min " + min + ")";
+    }
+}
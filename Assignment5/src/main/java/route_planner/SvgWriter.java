@@ -0,0 +1,133 @@
+package route_planner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * A buffered writer of svg elements, which formats the coordinates of the elements directly into its buffer
+ * instead of going through String.format and its parsing of the format string per element.
+ *
+ * Decimals are written with three digits, rounded half up like %.3f.
+ * The buffer is handed to the underlying writer whenever it grows beyond BUFFER_SIZE,
+ * so the writer itself does not need to be buffered.
+ */
+class SvgWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 15;
+    private static final double MAX_FAST_DECIMAL = 1E12;    // larger values do not fit the scaled long exactly
+
+    private final Writer writer;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+
+    SvgWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    SvgWriter append(String text) {
+        buffer.append(text);
+        if (buffer.length() > BUFFER_SIZE) this.flushBuffer();
+        return this;
+    }
+
+    SvgWriter append(int value) {
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * appends the value with three decimals
+     */
+    SvgWriter appendDecimal(double value) {
+        if (!(Math.abs(value) < MAX_FAST_DECIMAL)) {
+            buffer.append(String.format(Locale.ENGLISH, "%.3f", value));
+            return this;
+        }
+        // round the magnitude, such that halves are rounded away from zero for negative values as well
+        if (value < 0 || (value == 0.0 && 1 / value < 0)) buffer.append('-');
+        long scaled = Math.round(Math.abs(value) * 1000.0);
+        long fraction = scaled % 1000;
+        buffer.append(scaled / 1000).append('.');
+        if (fraction < 100) buffer.append('0');
+        if (fraction < 10) buffer.append('0');
+        buffer.append(fraction);
+        return this;
+    }
+
+    /**
+     * appends the text with the characters that have a meaning in xml escaped
+     */
+    SvgWriter appendEscaped(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': buffer.append("&lt;"); break;
+                case '>': buffer.append("&gt;"); break;
+                case '&': buffer.append("&amp;"); break;
+                case '\'': buffer.append("&apos;"); break;
+                case '"': buffer.append("&quot;"); break;
+                default: buffer.append(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * writes the header of an svg image, with a viewBox that matches the coordinate ranges of the Dutch RD-coordinate system
+     */
+    void header() {
+        this.append("<?xml version='1.0' standalone='no'?>\n")
+                .append("<svg width='20cm' height='30cm' viewBox='0 -625 300 300' preserveAspectRatio='xMidYMin'\n")
+                .append("     version='1.1' xmlns='http://www.w3.org/2000/svg'>\n");
+    }
+
+    void footer() {
+        this.append("</svg>\n");
+    }
+
+    void line(double x1, double y1, double x2, double y2, double width, String colour) {
+        this.append("<line x1='").appendDecimal(x1).append("' y1='").appendDecimal(y1)
+                .append("' x2='").appendDecimal(x2).append("' y2='").appendDecimal(y2)
+                .append("' stroke-width='").appendDecimal(width).append("' stroke='").append(colour).append("'/>\n");
+    }
+
+    void circle(double x, double y, double radius, String colour) {
+        this.append("<circle cx='").appendDecimal(x).append("' cy='").appendDecimal(y)
+                .append("' r='").appendDecimal(radius).append("' fill='").append(colour).append("'/>\n");
+    }
+
+    void text(double x, double y, int fontSize, String colour, String text) {
+        this.append("<text x='").appendDecimal(x).append("' y='").appendDecimal(y)
+                .append("' font-size='").append(fontSize).append("' fill='").append(colour)
+                .append("' text-anchor='middle'>").appendEscaped(text).append("</text>\n");
+    }
+
+    private void flushBuffer() {
+        try {
+            writer.append(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+
+    /**
+     * hands all buffered output to the underlying writer, and flushes that
+     */
+    void flush() {
+        this.flushBuffer();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flushBuffer();
+        writer.close();
+    }
+}
@@ -4,6 +4,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DirectedGraphTest {
@@ -184,4 +191,365 @@ class DirectedGraphTest {
         DirectedGraph<Country, Integer>.DGPath path = europe.dijkstraShortestPath("UK", "HU", b -> 2.0);
         assertNull(path);
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkDSPSearchWeighted() {
+        DirectedGraph<Country, Integer>.DGPath path = europe.dijkstraShortestPath("UK", "DE", b -> (double)b);
+        assertNotNull(path);
+        assertEquals(100.0, path.getTotalWeight(), 0.0001);
+        assertEquals(3, path.getVertices().size());
+        assertSame(europe.getVertexById("BE"), path.getVertices().stream().skip(1).findFirst().get(),
+                "Shortest path from UK to DE should pass through BE");
+    }
+
+    @Test
+    void checkBiDSPSearch() {
+        for (Country from : europe.getVertices()) {
+            for (Country to : europe.getVertices()) {
+                DirectedGraph<Country, Integer>.DGPath dsp =
+                        europe.dijkstraShortestPath(from.getId(), to.getId(), b -> (double)b);
+                DirectedGraph<Country, Integer>.DGPath biDsp =
+                        europe.bidirectionalDijkstraShortestPath(from.getId(), to.getId(), b -> (double)b);
+                if (dsp == null) {
+                    assertNull(biDsp);
+                    continue;
+                }
+                assertNotNull(biDsp);
+                assertEquals(dsp.getTotalWeight(), biDsp.getTotalWeight(), 0.0001);
+                assertSame(from, biDsp.getVertices().peek());
+                assertSame(to, biDsp.getVertices().stream().reduce((c1,c2)->c2).get());
+            }
+        }
+    }
+
+    @Test
+    void checkGetPredecessors() {
+        assertEquals(Set.of(be, de, fr), Set.copyOf(europe.getPredecessors("LUX")));
+        assertEquals(Set.of(hu), Set.copyOf(europe.getPredecessors(ro)));
+        assertNull(europe.getPredecessors("XX"));
+    }
+
+    @Test
+    void checkFrozenGraphSearches() {
+        FrozenGraph<Country, Integer> frozen = europe.freeze(b -> b);
+        assertEquals(europe.getNumVertices(), frozen.getNumVertices());
+        assertEquals(europe.getNumEdges(), frozen.getNumEdges());
+        assertNull(frozen.dijkstraShortestPath("UK", "XX"));
+
+        // the states of completed searches are reused, while concurrent searches get their own
+        SearchState state = frozen.acquireState();
+        assertNotSame(state, frozen.acquireState());
+        frozen.releaseState(state);
+        assertSame(state, frozen.acquireState());
+        frozen.releaseState(state);
+        for (Country from : europe.getVertices()) {
+            for (Country to : europe.getVertices()) {
+                DirectedGraph<Country, Integer>.DGPath dfs = europe.depthFirstSearch(from.getId(), to.getId());
+                DirectedGraph<Country, Integer>.DGPath frozenDfs = frozen.depthFirstSearch(from.getId(), to.getId());
+                DirectedGraph<Country, Integer>.DGPath bfs = europe.breadthFirstSearch(from.getId(), to.getId());
+                DirectedGraph<Country, Integer>.DGPath frozenBfs = frozen.breadthFirstSearch(from.getId(), to.getId());
+                DirectedGraph<Country, Integer>.DGPath dsp = europe.dijkstraShortestPath(from.getId(), to.getId(), b -> (double)b);
+                DirectedGraph<Country, Integer>.DGPath frozenDsp = frozen.dijkstraShortestPath(from.getId(), to.getId());
+                if (dsp == null) {
+                    assertNull(frozenDfs);
+                    assertNull(frozenBfs);
+                    assertNull(frozenDsp);
+                    continue;
+                }
+                assertEquals(List.copyOf(dfs.getVertices()), List.copyOf(frozenDfs.getVertices()),
+                        "Frozen depth-first search should explore the neighbours in the same order");
+                assertEquals(bfs.getVertices().size(), frozenBfs.getVertices().size());
+                assertEquals(bfs.getVisited(), frozenBfs.getVisited(),
+                        "Frozen breadth-first search should visit the same vertices");
+                assertEquals(dsp.getVisited(), frozenDsp.getVisited());
+                assertEquals(dsp.getTotalWeight(), frozenDsp.getTotalWeight(), 0.0001);
+                assertTrue(frozenDsp.getVisited().containsAll(frozenDsp.getVertices()));
+            }
+        }
+    }
+
+    @Test
+    void checkDeltaSteppingMatchesDijkstra() {
+        FrozenGraph<Country, Integer> frozen = europe.freeze(b -> b);
+        assertNull(frozen.deltaSteppingWeights("XX", 1.0));
+        assertThrows(IllegalArgumentException.class, () -> frozen.deltaSteppingWeights("UK", 0.0));
+        for (double delta : new double[] { 0.5, 2.0, 1000.0 }) {
+            for (Country from : europe.getVertices()) {
+                assertArrayEquals(frozen.shortestPathWeights(from.getId()),
+                        frozen.deltaSteppingWeights(from.getId(), delta), 0.0);
+                for (Country to : europe.getVertices()) {
+                    DirectedGraph<Country, Integer>.DGPath dsp =
+                            europe.dijkstraShortestPath(from.getId(), to.getId(), b -> (double)b);
+                    DirectedGraph<Country, Integer>.DGPath deltaStepping =
+                            europe.deltaSteppingShortestPath(from.getId(), to.getId(), b -> (double)b, delta);
+                    if (dsp == null) {
+                        assertNull(deltaStepping);
+                        continue;
+                    }
+                    assertEquals(dsp.getTotalWeight(), deltaStepping.getTotalWeight(), 0.0);
+                    List<Country> vertices = new ArrayList<>(deltaStepping.getVertices());
+                    double weight = 0.0;
+                    for (int v = 1; v < vertices.size(); v++) {
+                        weight += europe.getEdge(vertices.get(v - 1), vertices.get(v));
+                    }
+                    assertEquals(dsp.getTotalWeight(), weight, 0.0001,
+                            "The path should follow edges with the weight of the shortest path");
+                }
+            }
+        }
+
+        // a cycle of edges without weight around the target, with X also preceding T at the same weight as Y
+        DirectedGraph<Country, Integer> zeroCycle = new DirectedGraph<>();
+        for (String id : List.of("S", "X", "Y", "T")) {
+            zeroCycle.addOrGetVertex(new Country(id));
+        }
+        zeroCycle.addEdge("S", "Y", 1);
+        zeroCycle.addEdge("Y", "T", 1);
+        zeroCycle.addEdge("T", "X", 0);
+        zeroCycle.addEdge("X", "T", 0);
+        for (double delta : new double[] { 0.5, 1.0, 1000.0 }) {
+            DirectedGraph<Country, Integer>.DGPath path =
+                    zeroCycle.deltaSteppingShortestPath("S", "T", b -> (double)b, delta);
+            assertEquals(List.of("S", "Y", "T"),
+                    path.getVertices().stream().map(Country::getId).collect(Collectors.toList()));
+            assertEquals(2.0, path.getTotalWeight(), 0.0);
+            path = zeroCycle.deltaSteppingShortestPath("S", "X", b -> (double)b, delta);
+            assertEquals(List.of("S", "Y", "T", "X"),
+                    path.getVertices().stream().map(Country::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void checkDistanceMatrix() {
+        List<String> ids = List.of("UK", "NL", "LUX", "HU", "XX");
+        DistanceMatrix<Country, Integer> matrix = europe.distanceMatrix(ids, ids, b -> b, true);
+        for (int s = 0; s < ids.size(); s++) {
+            for (int t = 0; t < ids.size(); t++) {
+                DirectedGraph<Country, Integer>.DGPath dsp =
+                        europe.dijkstraShortestPath(ids.get(s), ids.get(t), b -> (double)b);
+                if (dsp == null) {
+                    assertEquals(Double.POSITIVE_INFINITY, matrix.getDistance(s, t));
+                    assertNull(matrix.getPath(s, t));
+                    continue;
+                }
+                assertEquals(dsp.getTotalWeight(), matrix.getDistance(s, t), 0.0001);
+                DirectedGraph<Country, Integer>.DGPath path = matrix.getPath(s, t);
+                assertSame(europe.getVertexById(ids.get(s)), path.getVertices().peek());
+                assertSame(europe.getVertexById(ids.get(t)), path.getVertices().stream().reduce((c1,c2)->c2).get());
+                assertEquals(dsp.getVertices().size(), path.getVertices().size());
+            }
+        }
+        assertArrayEquals(matrix.getDistances()[0], europe.distanceMatrix(List.of("UK"), ids, b -> b)[0]);
+    }
+
+    @Test
+    void checkReachableWithin() {
+        Map<Country, Double> reachable = europe.reachableWithin("UK", 130, b -> (double)b);
+        assertEquals(List.of(uk, be, de, lux), List.copyOf(reachable.keySet()),
+                "Reachable vertices should be ordered by weight and include the budget itself");
+        assertEquals(100.0, reachable.get(de));
+        assertEquals(Map.of(ro, 0.0), europe.reachableWithin("RO", 100, b -> (double)b));
+        assertTrue(europe.reachableWithin("XX", 100, b -> (double)b).isEmpty());
+
+        List<Map<Country, Double>> parallel = europe.reachableWithin(List.of("UK", "RO", "XX"), 130, b -> b);
+        assertEquals(reachable, parallel.get(0));
+        assertEquals(List.copyOf(reachable.keySet()), List.copyOf(parallel.get(0).keySet()));
+        assertEquals(Map.of(ro, 0.0), parallel.get(1));
+        assertTrue(parallel.get(2).isEmpty());
+    }
+
+    @Test
+    void checkKShortestPaths() {
+        // all loopless paths from UK to DE, enumerated exhaustively
+        List<Double> allWeights = new ArrayList<>();
+        collectPathWeights(uk, de, new ArrayList<>(List.of(uk)), 0.0, allWeights);
+        allWeights.sort(Double::compare);
+
+        List<DirectedGraph<Country, Integer>.DGPath> paths = europe.kShortestPaths("UK", "DE", 8, b -> (double)b);
+        assertEquals(Math.min(8, allWeights.size()), paths.size());
+        for (int p = 0; p < paths.size(); p++) {
+            assertEquals(allWeights.get(p), paths.get(p).getTotalWeight(), 0.0001);
+            assertEquals(paths.get(p).getVertices().size(), Set.copyOf(paths.get(p).getVertices()).size(),
+                    "Paths should be loopless");
+            for (int q = 0; q < p; q++) {
+                assertNotEquals(List.copyOf(paths.get(q).getVertices()), List.copyOf(paths.get(p).getVertices()));
+            }
+        }
+        assertEquals(europe.dijkstraShortestPath("UK", "DE", b -> (double)b).getTotalWeight(),
+                paths.get(0).getTotalWeight(), 0.0001);
+        assertEquals(allWeights.size(), europe.kShortestPaths("UK", "DE", 100, b -> (double)b).size());
+
+        assertTrue(europe.kShortestPaths("UK", "HU", 3, b -> (double)b).isEmpty());
+        assertTrue(europe.kShortestPaths("UK", "XX", 3, b -> (double)b).isEmpty());
+    }
+
+    private void collectPathWeights(Country from, Country target, List<Country> path, double weight,
+                                    List<Double> weights) {
+        if (from.equals(target)) {
+            weights.add(weight);
+            return;
+        }
+        for (Country neighbour : europe.getNeighbours(from)) {
+            if (path.contains(neighbour)) continue;
+            path.add(neighbour);
+            collectPathWeights(neighbour, target, path, weight + europe.getEdge(from, neighbour), weights);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    @Test
+    void checkParetoShortestPaths() {
+        // the weight pairs of all loopless paths from UK to DE, enumerated exhaustively
+        List<double[]> allWeights = new ArrayList<>();
+        collectPathWeightPairs(uk, de, new ArrayList<>(List.of(uk)), 0.0, 0.0, allWeights);
+        List<String> expectedFront = allWeights.stream()
+                .filter(w -> allWeights.stream().noneMatch(o -> o[0] <= w[0] && o[1] <= w[1] && (o[0] < w[0] || o[1] < w[1])))
+                .sorted((w1, w2) -> Double.compare(w1[0], w2[0]))
+                .map(w -> w[0] + "/" + w[1])
+                .distinct()
+                .collect(Collectors.toList());
+        assertTrue(expectedFront.size() > 1);
+
+        ParetoFront<Country, Integer> front = europe.paretoShortestPaths("UK", "DE",
+                b -> (double) b, b -> 300.0 - b, 100);
+        assertTrue(front.isComplete());
+        List<String> actualFront = new ArrayList<>();
+        for (int p = 0; p < front.size(); p++) {
+            actualFront.add(front.getFirstWeight(p) + "/" + front.getSecondWeight(p));
+            assertEquals(front.getFirstWeight(p), front.getPath(p).getTotalWeight());
+            double first = 0.0, second = 0.0;
+            Country from = null;
+            for (Country to : front.getPath(p).getVertices()) {
+                if (from != null) {
+                    first += europe.getEdge(from, to);
+                    second += 300.0 - europe.getEdge(from, to);
+                }
+                from = to;
+            }
+            assertEquals(front.getFirstWeight(p), first, 0.0001);
+            assertEquals(front.getSecondWeight(p), second, 0.0001);
+        }
+        assertEquals(expectedFront, actualFront);
+
+        // with a single label per vertex only the lightest path on the first criterion remains
+        ParetoFront<Country, Integer> bounded = europe.paretoShortestPaths("UK", "DE",
+                b -> (double) b, b -> 300.0 - b, 1);
+        assertEquals(1, bounded.size());
+        assertFalse(bounded.isComplete());
+        assertEquals(europe.dijkstraShortestPath("UK", "DE", b -> (double) b).getTotalWeight(),
+                bounded.getFirstWeight(0), 0.0001);
+
+        assertEquals(0, europe.paretoShortestPaths("UK", "HU", b -> (double) b, b -> 1.0, 10).size());
+        assertEquals(0, europe.paretoShortestPaths("UK", "XX", b -> (double) b, b -> 1.0, 10).size());
+    }
+
+    private void collectPathWeightPairs(Country from, Country target, List<Country> path,
+                                        double first, double second, List<double[]> weights) {
+        if (from.equals(target)) {
+            weights.add(new double[] { first, second });
+            return;
+        }
+        for (Country neighbour : europe.getNeighbours(from)) {
+            if (path.contains(neighbour)) continue;
+            path.add(neighbour);
+            int border = europe.getEdge(from, neighbour);
+            collectPathWeightPairs(neighbour, target, path, first + border, second + 300.0 - border, weights);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    @Test
+    void checkStronglyConnectedComponents() {
+        assertEquals(2, europe.getNumComponents());
+        assertEquals(europe.getComponentId("UK"), europe.getComponentId("DE"));
+        assertNotEquals(europe.getComponentId("UK"), europe.getComponentId("HU"));
+        assertEquals(-1, europe.getComponentId("XX"));
+        assertEquals(8, Arrays.stream(europe.getComponentSizes()).sum());
+        assertFalse(europe.mayReach("UK", "HU"));
+        assertTrue(europe.mayReach("UK", "NL"));
+
+        // one-way edges between the components of a chain: A <-> B -> C <-> D, and E on its own
+        DirectedGraph<Country, Integer> chain = new DirectedGraph<>();
+        chain.addConnection(new Country("A"), new Country("B"), 1);
+        chain.addEdge(new Country("B"), new Country("C"), 1);
+        chain.addConnection(new Country("C"), new Country("D"), 1);
+        chain.addOrGetVertex(new Country("E"));
+        assertEquals(3, chain.getNumComponents());
+        assertTrue(chain.mayReach("A", "D"));
+        assertFalse(chain.mayReach("D", "A"), "The components can only be passed in one direction");
+        assertFalse(chain.mayReach("A", "E"));
+        assertNull(chain.breadthFirstSearch("D", "A"));
+        assertNull(chain.dijkstraShortestPath("D", "A", b -> (double)b));
+
+        // an edge back merges the components of the chain
+        chain.addEdge("C", "B", 1);
+        assertEquals(2, chain.getNumComponents());
+        assertTrue(chain.mayReach("D", "A"));
+        assertEquals(List.of("D", "C", "B", "A"), chain.breadthFirstSearch("D", "A").getVertices().stream()
+                .map(Country::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void checkTraversalsOfLongChain() {
+        // a chain that is far too long for a recursive search
+        DirectedGraph<Country, Integer> chain = new DirectedGraph<>();
+        final int LENGTH = 100000;
+        for (int i = 1; i < LENGTH; i++) {
+            chain.addEdge(new Country("C" + (i - 1)), new Country("C" + i), 1);
+        }
+        String lastId = "C" + (LENGTH - 1);
+        DirectedGraph<Country, Integer>.DGPath dfs = chain.depthFirstSearch("C0", lastId);
+        assertEquals(LENGTH, dfs.getVertices().size());
+        assertEquals(LENGTH, dfs.getVisited().size());
+        assertTrue(chain.depthFirstSearch("C0", lastId, false).getVisited().isEmpty());
+        assertEquals(LENGTH, chain.breadthFirstSearch("C0", lastId, false).getVertices().size());
+        assertTrue(chain.breadthFirstSearch("C0", lastId, false).getVisited().isEmpty());
+        assertNull(chain.depthFirstSearch(lastId, "C0"));
+
+        FrozenGraph<Country, Integer> frozen = chain.freeze(b -> b);
+        assertEquals(LENGTH, frozen.depthFirstSearch("C0", lastId, false).getVertices().size());
+        assertTrue(frozen.breadthFirstSearch("C0", lastId, false).getVisited().isEmpty());
+        assertEquals(LENGTH - 1, frozen.dijkstraShortestPath("C0", lastId, false).getTotalWeight());
+    }
+
+    @Test
+    void checkSearchMetrics() {
+        assertNull(europe.dijkstraShortestPath("UK", "DE", b -> 2.0 * b).getMetrics(),
+                "Metrics should only be collected with a sink");
+
+        List<SearchMetrics> published = new ArrayList<>();
+        europe.setSearchMetricsSink(published::add);
+        DirectedGraph<Country,Integer>.DGPath dfs = europe.depthFirstSearch("UK", "DE");
+        DirectedGraph<Country,Integer>.DGPath bfs = europe.breadthFirstSearch("UK", "DE");
+        DirectedGraph<Country,Integer>.DGPath dsp = europe.dijkstraShortestPath("UK", "DE", b -> 2.0 * b);
+        DirectedGraph<Country,Integer>.DGPath biDsp = europe.bidirectionalDijkstraShortestPath("UK", "DE", b -> 2.0 * b);
+        assertNull(europe.dijkstraShortestPath("UK", "HU", b -> 2.0 * b));
+        europe.reachableWithin("UK", 200.0, b -> 2.0 * b);
+        europe.setSearchMetricsSink(null);
+        assertNull(europe.breadthFirstSearch("UK", "DE").getMetrics());
+
+        assertEquals(List.of("DFS", "BFS", "Dijkstra", "Bidirectional-Dijkstra", "Dijkstra", "Dijkstra-within-budget"),
+                published.stream().map(SearchMetrics::getAlgorithm).collect(Collectors.toList()));
+        assertSame(published.get(0), dfs.getMetrics());
+        assertSame(published.get(1), bfs.getMetrics());
+        assertSame(published.get(2), dsp.getMetrics());
+        assertSame(published.get(3), biDsp.getMetrics());
+        assertFalse(published.get(4).isFound());
+        assertEquals(0, published.get(4).getSettled(), "Unreachable targets should be rejected without searching");
+
+        for (SearchMetrics metrics : published.subList(0, 4)) {
+            assertTrue(metrics.isFound());
+            assertTrue(metrics.getSettled() > 0 && metrics.getSettled() <= europe.getNumVertices(), metrics.toString());
+            assertTrue(metrics.getRelaxed() <= europe.getNumEdges(), metrics.toString());
+            assertTrue(metrics.getPops() <= metrics.getPushes(), metrics.toString());
+            assertTrue(metrics.getPeakFrontier() >= 1 && metrics.getPeakFrontier() <= metrics.getPushes());
+            assertTrue(metrics.getWallNanos() > 0);
+        }
+        // dijkstra settles UK, BE and DE, after pushing UK, its neighbours BE, FR, NL
+        // and the neighbours of BE that improve: NL, DE and LUX
+        assertEquals(3, published.get(2).getSettled());
+        assertEquals(7, published.get(2).getPushes());
+        // the budget of 200 covers UK (0), BE (140) and FR (200)
+        assertEquals(3, published.get(5).getSettled());
+    }
+}
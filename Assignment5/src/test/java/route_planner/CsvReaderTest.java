@@ -0,0 +1,69 @@
+package route_planner;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    private static CsvReader readerOf(String text) {
+        byte[] bom = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+        byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[bom.length + content.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(content, 0, bytes, bom.length, content.length);
+        return new CsvReader(new ByteArrayInputStream(bytes), ';');
+    }
+
+    @Test
+    void checkRecordsAndFields() {
+        CsvReader reader = readerOf("Code;Naam\r\n1970; Noardeast-Fryslân ;200.751;-7\r\nS102;80;Diemen;;\n\nlast;1");
+        assertTrue(reader.nextRecord());
+        assertEquals("Code", reader.getString(0), "The byte order mark should be skipped");
+        assertEquals("Naam", reader.getString(1), "The carriage return should be ignored");
+
+        assertTrue(reader.nextRecord());
+        assertEquals(4, reader.getNumFields());
+        assertEquals(1970, reader.getInt(0));
+        assertEquals("Noardeast-Fryslân", reader.getString(1));
+        assertEquals(200.751, reader.getDouble(2));
+        assertEquals(-7, reader.getInt(3));
+
+        assertTrue(reader.nextRecord());
+        assertEquals(5, reader.getNumFields());
+        assertFalse(reader.isEmpty(2));
+        assertTrue(reader.isEmpty(3));
+        assertTrue(reader.isEmpty(7));
+
+        assertTrue(reader.nextRecord());
+        assertEquals(1, reader.getNumFields());
+        assertTrue(reader.isEmpty(0));
+
+        assertTrue(reader.nextRecord(), "The last line has no line break");
+        assertEquals(1, reader.getInt(1));
+        assertFalse(reader.nextRecord());
+    }
+
+    @Test
+    void checkNumberParsing() {
+        String[] numbers = { "0", "12.5", "-0.001", "559.617", "123456789.123456789", "9007199254740993",
+                "1e3", "0.1000000000000000000000001", ".5", "7." };
+        CsvReader reader = readerOf(String.join(";", numbers));
+        assertTrue(reader.nextRecord());
+        for (int field = 0; field < numbers.length; field++) {
+            assertEquals(Double.parseDouble(numbers[field]), reader.getDouble(field), 0.0,
+                    "Parsing should match Double.parseDouble for " + numbers[field]);
+        }
+
+        CsvReader invalid = readerOf("12a;2147483648;-2147483648;;x.5");
+        assertTrue(invalid.nextRecord());
+        assertThrows(NumberFormatException.class, () -> invalid.getInt(0));
+        assertThrows(NumberFormatException.class, () -> invalid.getInt(1));
+        assertEquals(Integer.MIN_VALUE, invalid.getInt(2));
+        assertThrows(NumberFormatException.class, () -> invalid.getInt(3));
+        assertThrows(NumberFormatException.class, () -> invalid.getDouble(4));
+    }
+}
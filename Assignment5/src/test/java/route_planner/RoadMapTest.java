@@ -0,0 +1,455 @@
+package route_planner;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import graphs.ContractionHierarchy;
+import graphs.LandmarkIndex;
+import graphs.ParetoFront;
+import graphs.ShortestPathTree;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadMapTest {
+
+    static RoadMap roadMap;
+
+    @BeforeAll
+    static void setUp() {
+        RoadMap.reSeedRandomizer(20211220L);
+        roadMap = new RoadMap("Junctions.csv", "Roads.csv");
+    }
+
+    @Test
+    void checkDenseJunctionIndices() {
+        for (int index = 0; index < roadMap.getNumVertices(); index++) {
+            assertEquals(index, roadMap.getVertexByIndex(index).getIndex());
+        }
+        for (Junction junction : roadMap.getVertices()) {
+            assertSame(junction, roadMap.getVertexByIndex(junction.getIndex()));
+        }
+    }
+
+    @Test
+    void checkAStarMatchesDijkstra() {
+        for (RouteMetric metric : RouteMetric.values()) {
+            RoadMap.DGPath dsp = roadMap.dijkstraShortestPath("Amsterdam", "Meppel", metric.getWeightMapper());
+            RoadMap.DGPath aStar = roadMap.aStarShortestPath("Amsterdam", "Meppel", metric);
+            assertNotNull(aStar);
+            assertEquals(dsp.getTotalWeight(), aStar.getTotalWeight(), 0.000001,
+                    "A* should find a path of the same weight as Dijkstra for " + metric);
+            assertTrue(aStar.getVisited().size() < dsp.getVisited().size(),
+                    "A* should visit fewer junctions than Dijkstra for " + metric);
+        }
+    }
+
+    @Test
+    void checkBidirectionalDijkstraMatchesDijkstra() {
+        for (RouteMetric metric : RouteMetric.values()) {
+            RoadMap.DGPath dsp = roadMap.dijkstraShortestPath("Amsterdam", "Meppel", metric.getWeightMapper());
+            RoadMap.DGPath biDsp = roadMap.bidirectionalDijkstraShortestPath("Amsterdam", "Meppel",
+                    metric.getWeightMapper());
+            assertNotNull(biDsp);
+            assertEquals(dsp.getTotalWeight(), biDsp.getTotalWeight(), 0.000001,
+                    "Bidirectional Dijkstra should find a path of the same weight as Dijkstra for " + metric);
+            assertTrue(biDsp.getVisited().size() < dsp.getVisited().size(),
+                    "Bidirectional Dijkstra should visit fewer junctions than Dijkstra for " + metric);
+        }
+    }
+
+    @Test
+    void checkContractionHierarchyMatchesDijkstra() {
+        List<Junction> junctions = new ArrayList<>(roadMap.getVertices());
+        for (RouteMetric metric : RouteMetric.values()) {
+            ContractionHierarchy<Junction, Road> hierarchy =
+                    new ContractionHierarchy<>(roadMap, metric.getWeightMapper());
+            for (int i = 0; i < junctions.size(); i += 7) {
+                for (int j = 3; j < junctions.size(); j += 11) {
+                    String fromId = junctions.get(i).getId();
+                    String toId = junctions.get(j).getId();
+                    RoadMap.DGPath dsp = roadMap.dijkstraShortestPath(fromId, toId, metric.getWeightMapper());
+                    RoadMap.DGPath ch = hierarchy.shortestPath(fromId, toId);
+                    if (dsp == null) {
+                        assertNull(ch);
+                        continue;
+                    }
+                    assertNotNull(ch, "Hierarchy should find a path from " + fromId + " to " + toId);
+                    assertEquals(dsp.getTotalWeight(), ch.getTotalWeight(), 0.000001);
+                    assertSame(junctions.get(i), ch.getVertices().peek());
+                    assertSame(junctions.get(j), ch.getVertices().stream().reduce((j1,j2)->j2).get());
+                    Junction from = null;
+                    for (Junction to : ch.getVertices()) {
+                        assertTrue(from == null || roadMap.getEdge(from, to) != null,
+                                "Unpacked path should consist of roads in the map");
+                        from = to;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void checkAltMatchesDijkstraAfterAccident() throws IOException {
+        RoadMap.reSeedRandomizer(20211220L);
+        RoadMap accidentMap = new RoadMap("Junctions.csv", "Roads.csv");
+        Function<Road, Double> travelTime = RouteMetric.TRAVEL_TIME.getWeightMapper();
+        LandmarkIndex landmarks = LandmarkIndex.build(accidentMap, travelTime::apply, 8);
+        assertEquals(8, landmarks.getLandmarkIds().size());
+
+        // the landmark index survives a round trip through its serialized form
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        landmarks.save(bytes);
+        landmarks = LandmarkIndex.load(new ByteArrayInputStream(bytes.toByteArray()));
+
+        RoadMap.DGPath dsp = accidentMap.dijkstraShortestPath("Amsterdam", "Meppel", travelTime);
+        RoadMap.DGPath alt = accidentMap.altShortestPath("Amsterdam", "Meppel", travelTime, landmarks);
+        assertEquals(dsp.getTotalWeight(), alt.getTotalWeight(), 0.000001);
+        assertTrue(alt.getVisited().size() < dsp.getVisited().size());
+
+        // lower bounds remain valid when a road gets slower
+        accidentMap.getEdge("Diemen", "Weesp").setMaxSpeed(5);
+        dsp = accidentMap.dijkstraShortestPath("Amsterdam", "Meppel", travelTime);
+        alt = accidentMap.altShortestPath("Amsterdam", "Meppel", travelTime, landmarks);
+        assertEquals(dsp.getTotalWeight(), alt.getTotalWeight(), 0.000001);
+        assertFalse(alt.getVertices().contains(accidentMap.getVertexById("Weesp")));
+    }
+
+    @Test
+    void checkRouteCacheInvalidation() {
+        RoadMap.reSeedRandomizer(20211220L);
+        RoadMap accidentMap = new RoadMap("Junctions.csv", "Roads.csv");
+        RouteCache cache = new RouteCache(accidentMap, 2);
+
+        RoadMap.DGPath fastest = cache.shortestPath("Amsterdam", "Meppel", RouteMetric.TRAVEL_TIME);
+        RoadMap.DGPath shortest = cache.shortestPath("Amsterdam", "Meppel", RouteMetric.DISTANCE);
+        assertSame(fastest, cache.shortestPath("Amsterdam", "Meppel", RouteMetric.TRAVEL_TIME));
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        // a slower road only affects the travel time of routes along that road
+        accidentMap.getEdge("Diemen", "Weesp").setMaxSpeed(5);
+        assertEquals(1, cache.getInvalidations());
+        assertSame(shortest, cache.shortestPath("Amsterdam", "Meppel", RouteMetric.DISTANCE));
+        RoadMap.DGPath detour = cache.shortestPath("Amsterdam", "Meppel", RouteMetric.TRAVEL_TIME);
+        assertNotSame(fastest, detour);
+        assertEquals(accidentMap.dijkstraShortestPath("Amsterdam", "Meppel",
+                RouteMetric.TRAVEL_TIME.getWeightMapper()).getTotalWeight(), detour.getTotalWeight(), 0.000001);
+
+        // a faster road far away cannot provide a bypass
+        accidentMap.getEdge("Maastricht", accidentMap.getNeighbours("Maastricht").iterator().next().getId())
+                .setMaxSpeed(130);
+        assertEquals(1, cache.getInvalidations());
+
+        // restoring the road makes the detour outdated
+        accidentMap.getEdge("Diemen", "Weesp").setMaxSpeed(100);
+        assertEquals(2, cache.getInvalidations());
+
+        cache.shortestPath("Utrecht", "Zwolle", RouteMetric.DISTANCE);
+        cache.shortestPath("Utrecht", "Zwolle", RouteMetric.TRAVEL_TIME);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void checkRouteCacheInvalidationByBothDirectionsAndNewRoads() {
+        // a slow direct road from A to C via B, and a fast detour via D
+        RoadMap smallMap = new RoadMap();
+        double[][] locations = { { 0, 0 }, { 10, 0 }, { 20, 0 }, { 10, 10 }, { 30, 0 } };
+        for (int j = 0; j < locations.length; j++) {
+            Junction junction = new Junction(String.valueOf((char) ('A' + j)));
+            junction.setLocationX(locations[j][0]);
+            junction.setLocationY(locations[j][1]);
+            smallMap.addOrGetVertex(junction);
+        }
+        Road slowRoad = new Road("AB", 10.0, 1);
+        smallMap.addConnection("A", "B", slowRoad);
+        smallMap.addConnection("B", "C", new Road("BC", 10.0, 100));
+        smallMap.addConnection("A", "D", new Road("AD", 15.0, 100));
+        smallMap.addConnection("D", "C", new Road("DC", 15.0, 100));
+        RouteCache cache = new RouteCache(smallMap, 10);
+        assertEquals(List.of("A", "D", "C"), junctionIds(cache.shortestPath("A", "C", RouteMetric.TRAVEL_TIME)));
+
+        // the bypass is only lighter along the road from A to B, not from B to A
+        slowRoad.setMaxSpeed(100);
+        assertEquals(List.of("A", "B", "C"), junctionIds(cache.shortestPath("A", "C", RouteMetric.TRAVEL_TIME)));
+
+        // a new road connects E, for which no route has been cached
+        assertNull(cache.shortestPath("A", "E", RouteMetric.TRAVEL_TIME));
+        smallMap.addConnection("C", "E", new Road("CE", 10.0, 100));
+        assertEquals(List.of("A", "B", "C", "E"), junctionIds(cache.shortestPath("A", "E", RouteMetric.TRAVEL_TIME)));
+
+        // and a new shortcut replaces the cached routes
+        smallMap.addEdge("A", "C", new Road("AC", 20.0, 400));
+        assertEquals(List.of("A", "C"), junctionIds(cache.shortestPath("A", "C", RouteMetric.TRAVEL_TIME)));
+        assertEquals(List.of("A", "C", "E"), junctionIds(cache.shortestPath("A", "E", RouteMetric.TRAVEL_TIME)));
+
+        // a road shorter than the straight line between its junctions breaks the estimates of later bypasses
+        smallMap.addConnection("D", "E", new Road("DE", 30.0, 100));
+        smallMap.getEdge("A", "D").setLength(1.0);
+        assertEquals(List.of("A", "D", "C", "E"), junctionIds(cache.shortestPath("A", "E", RouteMetric.DISTANCE)));
+        smallMap.getEdge("D", "E").setLength(23.0);
+        assertEquals(List.of("A", "D", "E"), junctionIds(cache.shortestPath("A", "E", RouteMetric.DISTANCE)));
+    }
+
+    private static List<String> junctionIds(RoadMap.DGPath path) {
+        List<String> ids = new ArrayList<>();
+        for (Junction junction : path.getVertices()) {
+            ids.add(junction.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void checkShortestPathTreeRepair() {
+        RoadMap.reSeedRandomizer(20211220L);
+        RoadMap accidentMap = new RoadMap("Junctions.csv", "Roads.csv");
+        Function<Road, Double> travelTime = RouteMetric.TRAVEL_TIME.getWeightMapper();
+        ShortestPathTree<Junction, Road> tree = new ShortestPathTree<>(accidentMap, "Amsterdam", travelTime);
+        accidentMap.addRoadChangeListener((from, to, road, previous) -> tree.edgeChanged(from, to));
+        assertEquals(accidentMap.dijkstraShortestPath("Amsterdam", "Meppel", travelTime).getTotalWeight(),
+                tree.getPath("Meppel").getTotalWeight(), 0.000001);
+
+        // a slower road detaches and reattaches only the junctions behind it
+        accidentMap.getEdge("Diemen", "Weesp").setMaxSpeed(5);
+        assertTrue(tree.getNumRepairedVertices() > 0);
+        assertTrue(tree.getNumRepairedVertices() < accidentMap.getNumVertices());
+        assertFalse(tree.getPath("Meppel").getVertices().contains(accidentMap.getVertexById("Weesp")));
+        ShortestPathTree<Junction, Road> fresh = new ShortestPathTree<>(accidentMap, "Amsterdam", travelTime);
+        for (Junction junction : accidentMap.getVertices()) {
+            assertEquals(fresh.getWeightTo(junction.getId()), tree.getWeightTo(junction.getId()), 0.000001);
+        }
+
+        // restoring the road propagates the improvement
+        accidentMap.getEdge("Diemen", "Weesp").setMaxSpeed(100);
+        fresh = new ShortestPathTree<>(accidentMap, "Amsterdam", travelTime);
+        for (Junction junction : accidentMap.getVertices()) {
+            assertEquals(fresh.getWeightTo(junction.getId()), tree.getWeightTo(junction.getId()), 0.000001);
+        }
+    }
+
+    @Test
+    void checkSpatialQueriesMatchFullScan() {
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            double x = 0 + 300 * random.nextDouble();
+            double y = 300 + 330 * random.nextDouble();
+            List<Junction> byDistance = new ArrayList<>(roadMap.getVertices());
+            byDistance.sort(Comparator.comparingDouble(j -> j.getDistance(x, y)));
+
+            assertSame(byDistance.get(0), roadMap.nearestJunction(x, y));
+            List<Junction> nearest = roadMap.nearestJunctions(x, y, 5);
+            assertEquals(5, nearest.size());
+            for (int k = 0; k < 5; k++) {
+                assertEquals(byDistance.get(k).getDistance(x, y), nearest.get(k).getDistance(x, y), 0.000001);
+            }
+            double radius = 25.0;
+            assertEquals(byDistance.stream().filter(j -> j.getDistance(x, y) <= radius).count(),
+                    roadMap.junctionsWithin(x, y, radius).size());
+        }
+
+        // unconnected junctions have been removed from the index together with the graph
+        assertEquals(roadMap.getNumVertices(), roadMap.nearestJunctions(150, 450, 1000).size());
+        Junction amsterdam = roadMap.getVertexById("Amsterdam");
+        assertSame(amsterdam, roadMap.nearestJunction(amsterdam.getLocationX(), amsterdam.getLocationY()));
+    }
+
+    @Test
+    void checkKShortestAlternativeRoutes() {
+        Function<Road, Double> travelTime = RouteMetric.TRAVEL_TIME.getWeightMapper();
+        List<RoadMap.DGPath> routes = roadMap.kShortestPaths("Amsterdam", "Meppel", 5, travelTime);
+        assertEquals(5, routes.size());
+        assertEquals(roadMap.dijkstraShortestPath("Amsterdam", "Meppel", travelTime).getTotalWeight(),
+                routes.get(0).getTotalWeight(), 0.000001);
+        for (int r = 0; r < routes.size(); r++) {
+            RoadMap.DGPath route = routes.get(r);
+            assertTrue(r == 0 || routes.get(r - 1).getTotalWeight() <= route.getTotalWeight());
+            assertEquals(route.getVertices().size(), route.getVisited().size(), "Routes should be loopless");
+            double weight = 0.0;
+            Junction from = null;
+            for (Junction to : route.getVertices()) {
+                if (from != null) weight += travelTime.apply(roadMap.getEdge(from, to));
+                from = to;
+            }
+            assertEquals(weight, route.getTotalWeight(), 0.000001);
+        }
+    }
+
+    @Test
+    void checkSnapshotReproducesMap(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("RoadMap.snapshot");
+        RoadMapSnapshot.write(roadMap, file);
+        RoadMap loaded = RoadMapSnapshot.read(file);
+
+        assertEquals(roadMap.getNumVertices(), loaded.getNumVertices());
+        assertEquals(roadMap.getNumEdges(), loaded.getNumEdges());
+        for (int index = 0; index < roadMap.getNumVertices(); index++) {
+            Junction original = roadMap.getVertexByIndex(index);
+            Junction copy = loaded.getVertexByIndex(index);
+            assertEquals(original.getName(), copy.getName());
+            assertEquals(original.getLocationX(), copy.getLocationX());
+            assertEquals(original.getLocationY(), copy.getLocationY());
+            assertEquals(original.getPopulation(), copy.getPopulation());
+            assertEquals(roadMap.getNeighbours(original).toString(), loaded.getNeighbours(copy).toString());
+            for (Junction neighbour : roadMap.getNeighbours(original)) {
+                Road road = roadMap.getEdge(original, neighbour);
+                Road copyRoad = loaded.getEdge(copy.getName(), neighbour.getName());
+                assertEquals(road.getName(), copyRoad.getName());
+                assertEquals(road.getLength(), copyRoad.getLength());
+                assertEquals(road.getMaxSpeed(), copyRoad.getMaxSpeed());
+            }
+        }
+        assertEquals(roadMap.dijkstraShortestPath("Amsterdam", "Meppel", Road::getLength).toString(),
+                loaded.dijkstraShortestPath("Amsterdam", "Meppel", Road::getLength).toString());
+        assertEquals(roadMap.getMaxSpeed(), loaded.getMaxSpeed());
+
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> RoadMapSnapshot.read(file));
+        // a valid header with a negative or a huge count of strings
+        for (int count : new int[] { -1, Integer.MAX_VALUE }) {
+            Files.write(file, ByteBuffer.allocate(12).putInt(0x524D4150).putInt(1).putInt(count).array());
+            assertThrows(IOException.class, () -> RoadMapSnapshot.read(file));
+        }
+    }
+
+    @Test
+    void checkRouteBatchMatchesSingleQueries() {
+        Function<Road, Double> travelTime = RouteMetric.TRAVEL_TIME.getWeightMapper();
+        Random random = new Random(18L);
+        List<Junction> junctions = new ArrayList<>(roadMap.getVertices());
+        List<RouteQuery> queries = new ArrayList<>();
+        for (int q = 0; q < 60; q++) {
+            // few origins, such that most searches serve several targets
+            Junction from = junctions.get(random.nextInt(5));
+            queries.add(new RouteQuery(from.getId(), junctions.get(random.nextInt(junctions.size())).getId()));
+        }
+        queries.add(new RouteQuery("Amsterdam", "Amsterdam"));
+        queries.add(new RouteQuery("Amsterdam", "Atlantis"));
+        queries.add(new RouteQuery("Atlantis", "Meppel"));
+
+        RouteBatchResult result = roadMap.routeBatch(queries, travelTime);
+        assertEquals(queries.size(), result.getNumQueries());
+        assertTrue(result.getNumSources() <= 7);
+        for (int q = 0; q < queries.size(); q++) {
+            RouteQuery query = queries.get(q);
+            RoadMap.DGPath expected = roadMap.dijkstraShortestPath(query.getFromId(), query.getToId(), travelTime);
+            RoadMap.DGPath path = result.getPath(q);
+            if (expected == null) {
+                assertNull(path, "No route expected for " + query);
+                continue;
+            }
+            assertNotNull(path, "Route expected for " + query);
+            assertEquals(expected.getTotalWeight(), path.getTotalWeight(), 0.000001);
+            List<Junction> route = new ArrayList<>(path.getVertices());
+            assertEquals(query.getFromId(), route.get(0).getId());
+            assertEquals(query.getToId(), route.get(route.size() - 1).getId());
+        }
+        assertNull(result.getPath(queries.size() - 1));
+        assertNull(result.getPath(queries.size() - 2));
+    }
+
+    @Test
+    void checkSvgLevelOfDetailAndParallelRendering() throws IOException {
+        RoadMap.reSeedRandomizer(20211220L);
+        RoadMap svgMap = new RoadMap("Junctions.csv", "Roads.csv");
+        Map<String, RoadMap.DGPath> paths = new LinkedHashMap<>();
+        paths.put("Test-Full.svg", null);
+        paths.put("Test-DSP.svg", svgMap.dijkstraShortestPath("Amsterdam", "Meppel", Road::getLength));
+        svgMap.svgDrawMaps(paths);
+        svgMap.setSvgLevelOfDetail(100, 0.0);
+        svgMap.svgDrawMaps(Map.of("Test-Highways.svg", paths.get("Test-DSP.svg")));
+
+        Path folder = Path.of(new File(RoadMap.class.getResource("/").getPath()).getAbsolutePath());
+        String full = Files.readString(folder.resolve("Test-Full.svg"));
+        String dsp = Files.readString(folder.resolve("Test-DSP.svg"));
+        String highways = Files.readString(folder.resolve("Test-Highways.svg"));
+        assertTrue(full.endsWith("</svg>\n"));
+        // the imported roads run in both directions with the same speed limit, and are drawn once
+        assertEquals(svgMap.getNumEdges() / 2, countOccurrences(full, "<line"));
+        int numPathRoads = paths.get("Test-DSP.svg").getVertices().size() - 1;
+        assertEquals(countOccurrences(full, "<line") + numPathRoads, countOccurrences(dsp, "<line"));
+        assertEquals(svgMap.getNumVertices(), countOccurrences(dsp, "<circle"));
+        assertTrue(countOccurrences(dsp, "yellowgreen") > 0);
+        assertEquals(numPathRoads, countOccurrences(highways, "lime"));
+        assertEquals(0, countOccurrences(highways, "lightskyblue"));
+        assertEquals(0, countOccurrences(highways, "stroke='gold'"));
+        assertTrue(countOccurrences(highways, "darkorange") > 0);
+    }
+
+    static int countOccurrences(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    void checkParetoRoutes() {
+        ParetoFront<Junction, Road> front = roadMap.paretoRoutes("Amsterdam", "Meppel", 64);
+        assertTrue(front.size() > 1, front.toString());
+        assertEquals(roadMap.dijkstraShortestPath("Amsterdam", "Meppel", Road::getLength).getTotalWeight(),
+                front.getFirstWeight(0), 0.000001);
+        assertEquals(roadMap.dijkstraShortestPath("Amsterdam", "Meppel",
+                        RouteMetric.TRAVEL_TIME.getWeightMapper()).getTotalWeight(),
+                front.getSecondWeight(front.size() - 1), 0.000001);
+        for (int r = 1; r < front.size(); r++) {
+            assertTrue(front.getFirstWeight(r - 1) < front.getFirstWeight(r));
+            assertTrue(front.getSecondWeight(r - 1) > front.getSecondWeight(r));
+        }
+    }
+
+    @Test
+    void checkTimeDependentRoutes() {
+        RoadMap.reSeedRandomizer(20211220L);
+        RoadMap trafficMap = new RoadMap("Junctions.csv", "Roads.csv");
+        Function<Road,Double> travelTime = RouteMetric.TRAVEL_TIME.getWeightMapper();
+        RoadMap.DGPath fastest = trafficMap.dijkstraShortestPath("Amsterdam", "Meppel", travelTime);
+
+        // without profiles the departure time does not matter
+        RoadMap.DGPath route = trafficMap.timeDependentRoute("Amsterdam", "Meppel", 8.0);
+        assertEquals(fastest.getTotalWeight(), route.getTotalWeight(), 0.000001);
+
+        SpeedProfile rushHours = SpeedProfile.rushHours(0.4f);
+        for (Junction junction : trafficMap.getVertices()) {
+            for (Road road : trafficMap.getEdges(junction)) {
+                if (road.getMaxSpeed() >= 100) road.setSpeedProfile(rushHours);
+            }
+        }
+        // at night all roads run at their speed limits
+        route = trafficMap.timeDependentRoute("Amsterdam", "Meppel", 3.0);
+        assertEquals(fastest.getTotalWeight(), route.getTotalWeight(), 0.000001);
+        assertEquals(fastest.getVertices().size(), route.getVertices().size());
+
+        // in the rush hour the route is slower, but no slower than the best static route at rush hour speeds
+        route = trafficMap.timeDependentRoute("Amsterdam", "Meppel", 8.0);
+        assertTrue(route.getTotalWeight() > fastest.getTotalWeight(), route.toString());
+        double peakTime = trafficMap.dijkstraShortestPath("Amsterdam", "Meppel",
+                road -> road.getLength() / (road.getMaxSpeed() * (road.getSpeedProfile() != null ? 0.4 : 1.0)))
+                .getTotalWeight();
+        assertTrue(route.getTotalWeight() <= peakTime + 0.000001, route + " vs " + peakTime);
+
+        // the travel time equals the sum of the roads, each entered at the arrival time at its first junction
+        List<Junction> junctions = new ArrayList<>(route.getVertices());
+        double time = 8.0;
+        for (int j = 1; j < junctions.size(); j++) {
+            time += trafficMap.getEdge(junctions.get(j - 1), junctions.get(j)).getTravelTime(time);
+        }
+        assertEquals(route.getTotalWeight(), time - 8.0, 0.000001);
+    }
+}
@@ -0,0 +1,94 @@
+package route_planner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import graphs.FrozenGraph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadNetworkGeneratorTest {
+
+    @Test
+    void checkGeneratedNetwork(@TempDir Path directory) throws IOException {
+        Path junctionsFile = directory.resolve("Junctions.csv");
+        Path roadsFile = directory.resolve("Roads.csv");
+        int numSegments = new RoadNetworkGenerator(7L).generate(2500, junctionsFile, roadsFile);
+
+        RoadMap roadMap = new RoadMap();
+        assertEquals(2500, roadMap.importJunctions(Files.newInputStream(junctionsFile)));
+        assertEquals(numSegments, roadMap.importRoads(Files.newInputStream(roadsFile)));
+        assertEquals(2 * numSegments, roadMap.getNumEdges());
+        roadMap.removeUnconnectedVertices();
+
+        double averageDegree = (double) roadMap.getNumEdges() / roadMap.getNumVertices();
+        assertTrue(averageDegree > 2.5 && averageDegree < 4.0, "Average degree " + averageDegree);
+        Set<Integer> speeds = new HashSet<>();
+        for (Junction junction : roadMap.getVertices()) {
+            for (Road road : roadMap.getEdges(junction)) {
+                speeds.add(road.getMaxSpeed());
+            }
+        }
+        assertEquals(Set.of(50, 80, 100, 120), speeds);
+
+        // nearly all junctions should be in one strongly connected component
+        int[] componentSizes = roadMap.getComponentSizes();
+        int largest = 0;
+        for (int size : componentSizes) {
+            largest = Math.max(largest, size);
+        }
+        assertTrue(largest > 0.95 * 2500, "Largest component " + largest);
+
+        // the same seed reproduces the same network
+        Path junctionsCopy = directory.resolve("JunctionsCopy.csv");
+        Path roadsCopy = directory.resolve("RoadsCopy.csv");
+        new RoadNetworkGenerator(7L).generate(2500, junctionsCopy, roadsCopy);
+        assertEquals(-1L, Files.mismatch(junctionsFile, junctionsCopy));
+        assertEquals(-1L, Files.mismatch(roadsFile, roadsCopy));
+    }
+
+    @Test
+    void checkDeltaSteppingMatchesDijkstra(@TempDir Path directory) throws IOException {
+        Path junctionsFile = directory.resolve("Junctions.csv");
+        Path roadsFile = directory.resolve("Roads.csv");
+        new RoadNetworkGenerator(11L).generate(40000, junctionsFile, roadsFile);
+        RoadMap roadMap = new RoadMap();
+        roadMap.importJunctions(Files.newInputStream(junctionsFile));
+        roadMap.importRoads(Files.newInputStream(roadsFile));
+
+        for (RouteMetric metric : RouteMetric.values()) {
+            FrozenGraph<Junction, Road> frozen = roadMap.freeze(metric.getWeightMapper()::apply);
+            double totalWeight = 0.0;
+            for (Junction junction : roadMap.getVertices()) {
+                for (Road road : roadMap.getEdges(junction)) {
+                    totalWeight += metric.getWeightMapper().apply(road);
+                }
+            }
+            double averageWeight = totalWeight / frozen.getNumEdges();
+            double[] dijkstra = frozen.shortestPathWeights("J20100");
+            // from narrow buckets up to buckets that hold thousands of junctions, relaxed by parallel tasks
+            for (double delta : new double[] { averageWeight / 4, averageWeight, 100 * averageWeight }) {
+                assertArrayEquals(dijkstra, frozen.deltaSteppingWeights("J20100", delta), 0.0,
+                        "Delta-stepping should find the same weights for " + metric + " with delta " + delta);
+            }
+
+            // the path is traced along the parents of the parallel search
+            RoadMap.DGPath path = frozen.deltaSteppingShortestPath("J20100", "J39000", 100 * averageWeight);
+            List<Junction> junctions = new ArrayList<>(path.getVertices());
+            double weight = 0.0;
+            for (int j = 1; j < junctions.size(); j++) {
+                weight += metric.getWeightMapper().apply(roadMap.getEdge(junctions.get(j - 1), junctions.get(j)));
+            }
+            assertEquals(dijkstra[frozen.indexOf("J39000")], path.getTotalWeight(), 0.0);
+            assertEquals(path.getTotalWeight(), weight, 0.000001);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package route_planner;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteServerTest {
+
+    static RoadMap roadMap;
+    static RouteServer server;
+    static HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        RoadMap.reSeedRandomizer(20211220L);
+        roadMap = new RoadMap("Junctions.csv", "Roads.csv");
+        server = new RouteServer(roadMap, 0);
+        server.start();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.close();
+    }
+
+    static HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void checkRouteMatchesDijkstra() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/route?from=Amsterdam&to=Meppel&metric=distance");
+        assertEquals(200, response.statusCode());
+        RoadMap.DGPath expected = roadMap.dijkstraShortestPath("Amsterdam", "Meppel", Road::getLength);
+        assertTrue(response.body().contains("\"weight\":" + expected.getTotalWeight()), response.body());
+        String junctions = expected.getVertices().stream()
+                .map(junction -> "\"" + junction.getId() + "\"").collect(Collectors.joining(","));
+        assertTrue(response.body().contains("\"junctions\":[" + junctions + "]"), response.body());
+
+        assertEquals(404, get("/route?from=Amsterdam&to=Atlantis").statusCode());
+        assertEquals(400, get("/route?from=Amsterdam").statusCode());
+        assertEquals(400, get("/route?from=Amsterdam&to=Meppel&metric=beauty").statusCode());
+    }
+
+    @Test
+    void checkIsochroneAndMatrix() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/isochrone?from=Amsterdam&budget=0.5");
+        assertEquals(200, response.statusCode());
+        int numJunctions = roadMap.reachableWithin("Amsterdam", 0.5,
+                RouteMetric.TRAVEL_TIME.getWeightMapper()).size();
+        assertEquals(numJunctions, response.body().split("\"id\":").length - 1);
+
+        response = get("/matrix?sources=Amsterdam,Meppel&targets=Weesp,Meppel");
+        assertEquals(200, response.statusCode());
+        double weight = roadMap.dijkstraShortestPath("Meppel", "Weesp",
+                RouteMetric.TRAVEL_TIME.getWeightMapper()).getTotalWeight();
+        assertTrue(response.body().endsWith(",[" + weight + ",0.0]]}"), response.body());
+        assertEquals(404, get("/matrix?sources=Amsterdam,Meppel&targets=Weesp,Atlantis").statusCode());
+        assertEquals(404, get("/matrix?sources=Atlantis&targets=Weesp").statusCode());
+        String manyIds = String.join(",", Collections.nCopies(101, "Amsterdam"));
+        assertEquals(400, get("/matrix?sources=" + manyIds + "&targets=" + manyIds).statusCode(),
+                "A matrix request may not occupy the shared pool with an unbounded number of searches");
+    }
+
+    @Test
+    void checkConcurrentRequestsAndStats() throws IOException, InterruptedException {
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, 50)
+                .mapToObj(i -> client.sendAsync(HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + server.getPort() + "/route?from=Amsterdam&to=Meppel")).build(),
+                        HttpResponse.BodyHandlers.ofString()))
+                .collect(Collectors.toList());
+        String first = responses.get(0).join().body();
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+            assertEquals(first, response.join().body());
+        }
+
+        HttpResponse<String> stats = get("/stats");
+        assertEquals(200, stats.statusCode());
+        assertTrue(stats.body().contains("\"/route\":{\"count\":"), stats.body());
+        assertTrue(stats.body().contains("\"p99Ms\":"), stats.body());
+    }
+}
@@ -0,0 +1,68 @@
+package route_planner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpeedProfileTest {
+
+    @Test
+    void checkInterningAndFactors() {
+        float[] factors = new float[SpeedProfile.NUM_SLOTS];
+        Arrays.fill(factors, 1.0f);
+        factors[40] = 0.5f;
+        SpeedProfile profile = SpeedProfile.of(factors);
+        factors[40] = 0.5f;
+        assertSame(profile, SpeedProfile.of(factors.clone()),
+                "Profiles with the same pattern should share a single instance");
+        factors[41] = 0.5f;
+        assertNotSame(profile, SpeedProfile.of(factors));
+
+        // linear between the starts of the slots, repeating every day
+        assertEquals(1.0, profile.getFactor(9.75), 0.000001);
+        assertEquals(0.75, profile.getFactor(9.875), 0.000001);
+        assertEquals(0.5, profile.getFactor(10.0), 0.000001);
+        assertEquals(0.75, profile.getFactor(10.125 + 48.0), 0.000001);
+        assertThrows(IllegalArgumentException.class, () -> SpeedProfile.of(new float[10]));
+    }
+
+    @Test
+    void checkTravelTimeIsFifo() {
+        SpeedProfile profile = SpeedProfile.rushHours(0.3f);
+        // a constant speed outside the rush hours
+        assertEquals(10.0 / 100, profile.travelTime(10.0, 100, 3.0), 0.000001);
+
+        // the integrated travel time covers the length, also across several slots
+        double travelTime = profile.travelTime(50.0, 100, 7.0);
+        double distance = 0.0;
+        int steps = 100000;
+        for (int step = 0; step < steps; step++) {
+            distance += 100 * profile.getFactor(7.0 + (step + 0.5) * travelTime / steps) * travelTime / steps;
+        }
+        assertEquals(50.0, distance, 0.001);
+
+        // leaving later never arrives earlier
+        double previousArrival = Double.NEGATIVE_INFINITY;
+        for (double departure = 0.0; departure < 48.0; departure += 0.01) {
+            double arrival = departure + profile.travelTime(30.0, 120, departure);
+            assertTrue(arrival >= previousArrival - 1E-12, "FIFO violated at " + departure);
+            previousArrival = arrival;
+        }
+    }
+
+    @Test
+    void checkTravelTimeOfRoadsThatCannotBeDriven() {
+        SpeedProfile profile = SpeedProfile.rushHours(0.5f);
+        assertEquals(Double.POSITIVE_INFINITY, profile.travelTime(10.0, 0, 8.0));
+        assertEquals(Double.POSITIVE_INFINITY, profile.travelTime(Double.NaN, 100, 8.0));
+        assertEquals(Double.POSITIVE_INFINITY, profile.travelTime(10.0, 100, Double.NaN));
+
+        // like the static travel time of a road without speed limit
+        Road road = new Road("N1");
+        road.setLength(10.0);
+        road.setSpeedProfile(profile);
+        assertEquals(road.getLength() / road.getMaxSpeed(), road.getTravelTime(8.0));
+    }
+}
@@ -0,0 +1,46 @@
+package route_planner;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SvgWriterTest {
+
+    static String decimal(double value) {
+        StringWriter out = new StringWriter();
+        SvgWriter writer = new SvgWriter(out);
+        writer.appendDecimal(value);
+        writer.flush();
+        return out.toString();
+    }
+
+    @Test
+    void checkDecimalsMatchFormat() {
+        double[] values = { 0.0, -0.0, 1.0, -1.0, 0.0004, -0.0004, 0.9996, 12.5, -436.123456, 1E13, Double.NaN };
+        for (double value : values) {
+            assertEquals(String.format(Locale.ENGLISH, "%.3f", value), decimal(value), "Formatting " + value);
+        }
+        Random random = new Random(20L);
+        for (int i = 0; i < 10000; i++) {
+            double value = (random.nextDouble() - 0.5) * 1000.0;
+            assertEquals(String.format(Locale.ENGLISH, "%.3f", value), decimal(value), "Formatting " + value);
+        }
+    }
+
+    @Test
+    void checkElementsAndEscaping() throws IOException {
+        StringWriter out = new StringWriter();
+        try (SvgWriter writer = new SvgWriter(out)) {
+            writer.line(1.0, -2.0, 3.25, -4.5, 0.2, "gold");
+            writer.text(1.0, -3.3, 3, "black", "Kop & <Staart>");
+        }
+        assertEquals("<line x1='1.000' y1='-2.000' x2='3.250' y2='-4.500' stroke-width='0.200' stroke='gold'/>\n" +
+                "<text x='1.000' y='-3.300' font-size='3' fill='black' text-anchor='middle'>" +
+                "Kop &amp; &lt;Staart&gt;</text>\n", out.toString());
+    }
+}